@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.ray3k.themematch3.board.Board;
+import com.ray3k.themematch3.board.Board.BoardListener;
+import com.ray3k.themematch3.board.BoardEventBus;
+import com.ray3k.themematch3.board.BoardTelemetry;
+import com.ray3k.themematch3.board.MatchShape;
+import com.ray3k.themematch3.board.MoveIndex;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays turns of swapping, matching, dropping and spawning on a single board
+ * and fails if the turns allocated anything on the heap once warmed up. Uses
+ * the HotSpot per-thread allocation counter and reports the best of a few
+ * rounds of {@link #TURNS} turns. Run with
+ * {@code gradlew benchmarks:allocationCheck}.
+ */
+public class AllocationCheck implements BoardListener {
+    public static final int WARMUP_TURNS = 100000;
+    public static final int TURNS = 10000;
+    public static final int ROUNDS = 3;
+    private final Board board;
+    private final RandomXS128 random;
+    private final BoardEventBus eventBus;
+    private final BoardTelemetry telemetry;
+    private long score;
+    
+    public AllocationCheck(int columns, int rows, long seed) {
+        board = new Board(columns, rows, Board.DEFAULT_PIECE_TYPES, new RandomXS128(seed));
+        board.setListener(this);
+        eventBus = new BoardEventBus(board.getCellCount() * 16);
+        telemetry = new BoardTelemetry();
+        eventBus.subscribe(telemetry);
+        board.setEventBus(eventBus);
+        board.increaseLevel();
+        random = new RandomXS128(seed);
+    }
+    
+    /**
+     * Plays a hint move or a random swap, then a spawn wave, resolving
+     * cascades after each, and flushes the turn's events. A lost board is
+     * cleared and play continues.
+     */
+    public void playTurn() {
+        MoveIndex moveIndex = board.getMoveIndex();
+        int move = moveIndex.getHint();
+        if (move != -1 && random.nextInt(4) != 0) {
+            board.swap(moveIndex.getFrom(move), moveIndex.getTo(move));
+        } else {
+            int cell = random.nextInt(board.getCellCount());
+            int step = random.nextBoolean() ? 1 : -1;
+            int other = random.nextBoolean() ? board.getAdjacent(cell, step, 0) : board.getAdjacent(cell, 0, step);
+            if (other != -1 && board.isAdjacent(cell, other)) board.swap(cell, other);
+        }
+        board.resolve();
+        
+        if (board.spawnRandomPiece() == -1) {
+            board.reset();
+        } else {
+            for (int i = 1; i < board.getSpawnCount(); i++) {
+                board.spawnRandomPieceSafe();
+            }
+            board.resolve();
+        }
+        eventBus.flush();
+    }
+    
+    /**
+     * @return The bytes allocated by the current thread while playing.
+     */
+    public long measure(int turns) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        
+        long overhead = threadBean.getThreadAllocatedBytes(id);
+        overhead = threadBean.getThreadAllocatedBytes(id) - overhead;
+        
+        long start = threadBean.getThreadAllocatedBytes(id);
+        for (int i = 0; i < turns; i++) {
+            playTurn();
+        }
+        return threadBean.getThreadAllocatedBytes(id) - start - overhead;
+    }
+
+    @Override
+    public void pieceAdded(int cell, byte piece) {
+    }
+
+    @Override
+    public void pieceMoved(int fromCell, int toCell) {
+    }
+
+    @Override
+    public void pieceRemoved(int cell) {
+    }
+
+    @Override
+    public void scored(int points, int matchSize, MatchShape shape) {
+        score += points;
+    }
+
+    @Override
+    public void levelIncreased(int level) {
+    }
+    
+    public static void main(String[] args) {
+        int columns = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        
+        AllocationCheck check = new AllocationCheck(columns, rows, seed);
+        check.measure(WARMUP_TURNS);
+        
+        //the JIT occasionally allocates on this thread while compiling, real garbage shows up in every round
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS && allocated != 0; i++) {
+            allocated = Math.min(allocated, check.measure(TURNS));
+        }
+        
+        System.out.println("Board " + columns + "x" + rows + ": " + allocated + " bytes allocated over " + TURNS + " turns, score " + check.score);
+        if (allocated != 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.SkeletonData;
+import com.ray3k.themematch3.AssetParser;
+import com.ray3k.themematch3.SkeletonDataLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses every skeleton and font the game loads at startup through an
+ * {@link AssetParser} with a given number of threads. Each fork measures a
+ * single cold pass, the way the loading screen sees it. Run from the core
+ * assets directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class AssetParserBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+    private AssetParser parser;
+    private TextureAtlas atlas;
+    private Array<FileHandle> skeletonFiles;
+    private Array<FileHandle> fontFiles;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        parser = new AssetParser(threads);
+        atlas = Headless.createAtlas();
+        skeletonFiles = new Array<FileHandle>();
+        for (FileHandle jsonFile : new FileHandle("themematch3_data/spine").list("json")) {
+            skeletonFiles.add(SkeletonDataLoader.preferBinary(jsonFile));
+        }
+        fontFiles = new Array<FileHandle>(new FileHandle("themematch3_data/ui").list("fnt"));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parser.dispose();
+    }
+    
+    @Benchmark
+    public int parse() {
+        for (final FileHandle file : skeletonFiles) {
+            parser.submit(file.path(), new Callable<SkeletonData>() {
+                @Override
+                public SkeletonData call() {
+                    return SkeletonDataLoader.read(file, atlas, 1);
+                }
+            });
+        }
+        for (final FileHandle file : fontFiles) {
+            parser.submit(file.path(), new Callable<BitmapFontData>() {
+                @Override
+                public BitmapFontData call() {
+                    return new BitmapFontData(file, false);
+                }
+            });
+        }
+        
+        int count = 0;
+        for (FileHandle file : skeletonFiles) {
+            count += parser.take(file.path(), SkeletonData.class).getBones().size;
+        }
+        for (FileHandle file : fontFiles) {
+            count += parser.take(file.path(), BitmapFontData.class).imagePaths.length;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Skin;
+import com.ray3k.themematch3.BakedAnimation;
+import com.ray3k.themematch3.Core;
+
+/**
+ * Compares every frame of every baked piece animation and skin against the
+ * vertices SkeletonRenderer submits for a live skeleton at the same time and
+ * position. Fails if a quad's texture, color or UVs differ, or a position is
+ * off by more than {@link #EPSILON}. Run with
+ * {@code gradlew benchmarks:bakedAnimationCheck}.
+ */
+public class BakedAnimationCheck {
+    public static final float EPSILON = .001f;
+    private static final float X = 123.25f;
+    private static final float Y = 456.5f;
+    private final SkeletonRenderer skeletonRenderer;
+    private final RecordingBatch liveBatch;
+    private final RecordingBatch bakedBatch;
+    private int frames;
+    private int quads;
+    private int failures;
+    private float maxError;
+    
+    public BakedAnimationCheck() {
+        skeletonRenderer = new SkeletonRenderer();
+        skeletonRenderer.setPremultipliedAlpha(true);
+        liveBatch = new RecordingBatch();
+        bakedBatch = new RecordingBatch();
+    }
+    
+    /**
+     * Records the quads submitted to the batch.
+     */
+    private static class RecordingBatch extends CountingBatch {
+        private final FloatArray vertices = new FloatArray();
+        private final Array<Texture> textures = new Array<Texture>();
+
+        @Override
+        public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+            super.draw(texture, spriteVertices, offset, count);
+            vertices.addAll(spriteVertices, offset, count);
+            textures.add(texture);
+        }
+        
+        public void clear() {
+            vertices.clear();
+            textures.clear();
+        }
+    }
+    
+    public void check(String name, SkeletonData skeletonData, Skin skin, Animation animation) {
+        BakedAnimation baked = BakedAnimation.bake(skeletonData, skin, animation, BakedAnimation.DEFAULT_FRAME_RATE, skeletonRenderer.getPremultipliedAlpha());
+        
+        Skeleton skeleton = new Skeleton(skeletonData);
+        skeleton.setSkin(skin);
+        skeleton.setToSetupPose();
+        AnimationState animationState = new AnimationState(Core.spineDataCache.getAnimationStateData(skeletonData, 0));
+        if (animation != null) animationState.setAnimation(0, animation, true);
+        
+        for (int frame = 0; frame < baked.getFrameCount(); frame++) {
+            if (frame > 0) animationState.update(1 / baked.getFrameRate());
+            animationState.apply(skeleton);
+            skeleton.setPosition(X, Y);
+            skeleton.updateWorldTransform();
+            
+            liveBatch.clear();
+            liveBatch.begin();
+            skeletonRenderer.draw(liveBatch, skeleton);
+            liveBatch.end();
+            
+            bakedBatch.clear();
+            bakedBatch.begin();
+            baked.draw(bakedBatch, frame, X, Y);
+            bakedBatch.end();
+            
+            frames++;
+            quads += liveBatch.textures.size;
+            String mismatch = compare();
+            if (mismatch != null) {
+                failures++;
+                System.out.println(name + " " + skin.getName() + " " + (animation == null ? "setup pose" : animation.getName()) + " frame " + frame + ": " + mismatch);
+            }
+        }
+    }
+    
+    /**
+     * @return A description of the first difference, or null if the frames
+     * match.
+     */
+    private String compare() {
+        if (liveBatch.textures.size != bakedBatch.textures.size) {
+            return liveBatch.textures.size + " live quads, " + bakedBatch.textures.size + " baked";
+        }
+        
+        for (int i = 0; i < liveBatch.textures.size; i++) {
+            if (liveBatch.textures.get(i) != bakedBatch.textures.get(i)) return "texture of quad " + i;
+        }
+        
+        float[] live = liveBatch.vertices.items;
+        float[] baked = bakedBatch.vertices.items;
+        for (int i = 0; i < liveBatch.vertices.size; i++) {
+            int component = i % 5;
+            if (component < 2) {
+                float error = Math.abs(live[i] - baked[i]);
+                maxError = Math.max(maxError, error);
+                if (error > EPSILON) return "position " + i + " off by " + error;
+            } else if (Float.floatToRawIntBits(live[i]) != Float.floatToRawIntBits(baked[i])) {
+                return (component == 2 ? "color " : "uv ") + i;
+            }
+        }
+        return null;
+    }
+    
+    public static void main(String[] args) {
+        String[] names = args.length > 0 ? args : new String[] {"apple", "banana", "candy-1", "candy-2", "candy-corn", "cherries", "chip", "cog", "diamond", "grapes", "gummy-bear", "heart", "jawbreaker", "lemon", "orange", "strawberry", "watermelon"};
+        
+        SkeletonJson skeletonJson = new SkeletonJson(Headless.createAtlas());
+        BakedAnimationCheck check = new BakedAnimationCheck();
+        for (String name : names) {
+            SkeletonData skeletonData = skeletonJson.readSkeletonData(new FileHandle("themematch3_data/spine/" + name + ".json"));
+            for (Skin skin : skeletonData.getSkins()) {
+                if (skin.getName().equals("default")) continue;
+                
+                check.check(name, skeletonData, skin, null);
+                for (Animation animation : skeletonData.getAnimations()) {
+                    check.check(name, skeletonData, skin, animation);
+                }
+            }
+        }
+        
+        System.out.println(check.frames + " frames, " + check.quads + " quads, max position error " + check.maxError + ", " + check.failures + " mismatched frames");
+        if (check.failures > 0) {
+            System.exit(1);
+        }
+    }
+}
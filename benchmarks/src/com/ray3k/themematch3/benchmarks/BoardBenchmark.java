@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.ray3k.themematch3.board.Board;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Match detection and dropping at several board sizes. GridEntity delegates
+ * both to {@link Board}, so the rules are measured here without a stage.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BoardBenchmark {
+    @Param({"8", "16", "64", "256"})
+    public int size;
+    private Board board;
+    private int first;
+    private int second;
+    
+    @Setup(Level.Trial)
+    public void setupBoard() {
+        board = new Board(size, size, Board.DEFAULT_PIECE_TYPES, new RandomXS128(1));
+        fill();
+        first = board.getCell(size / 2, size / 2);
+        second = board.getCell(size / 2 + 1, size / 2);
+    }
+    
+    /**
+     * Fills every empty cell with a pattern that contains no matches.
+     */
+    private void fill() {
+        for (int column = 0; column < board.getColumns(); column++) {
+            while (board.isColumnFree(column)) {
+                int row = board.getRow(board.getFreeCell(column));
+                board.addPiece(column, (byte) ((column + 2 * row) % Board.DEFAULT_PIECE_TYPES));
+            }
+        }
+    }
+    
+    /**
+     * A full scan of the board, as done after every turn before matching was
+     * made incremental.
+     */
+    @Benchmark
+    public boolean findAll() {
+        return board.getMatchFinder().find();
+    }
+    
+    /**
+     * A swap and its undo, each followed by a match check of the lines it
+     * touched.
+     */
+    @Benchmark
+    public boolean swapAndCheckForMatch() {
+        board.swap(first, second);
+        boolean matched = board.checkForMatch();
+        board.swap(first, second);
+        return board.checkForMatch() | matched;
+    }
+    
+    @State(Scope.Thread)
+    public static class DropState {
+        private Board board;
+        
+        @Setup(Level.Trial)
+        public void setupBoard(BoardBenchmark benchmark) {
+            board = benchmark.board;
+        }
+        
+        /**
+         * Refills the board and empties its bottom row so that every piece
+         * has to fall one cell.
+         */
+        @Setup(Level.Invocation)
+        public void clearBottomRow(BoardBenchmark benchmark) {
+            benchmark.fill();
+            for (int column = 0; column < board.getColumns(); column++) {
+                board.remove(board.getCell(column, board.getRows() - 1));
+            }
+        }
+    }
+    
+    @Benchmark
+    public boolean dropAll(DropState state) {
+        return state.board.dropAll();
+    }
+}
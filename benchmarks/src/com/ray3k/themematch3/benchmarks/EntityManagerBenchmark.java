@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.RandomXS128;
+import com.ray3k.themematch3.Entity;
+import com.ray3k.themematch3.EntityManager;
+import com.ray3k.themematch3.TextureEntity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One frame of {@link EntityManager} updating and drawing a number of
+ * texture entities at random depths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EntityManagerBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+    @Param({"false", "true"})
+    public boolean checkingCollisions;
+    private EntityManager entityManager;
+    private CountingBatch batch;
+    private int frames;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        TextureRegion region = new TextureRegion(Headless.createTexture(64, 64));
+        RandomXS128 random = new RandomXS128(1);
+        entityManager = new EntityManager();
+        for (int i = 0; i < count; i++) {
+            BenchmarkEntity entity = new BenchmarkEntity();
+            entity.setTextureRegion(region);
+            entity.setPosition(random.nextFloat() * 800, random.nextFloat() * 800);
+            entity.setMotion(10, random.nextFloat() * 360);
+            entity.setDepth(random.nextInt(count));
+            entity.setCheckingCollisions(checkingCollisions);
+            entity.getCollisionBox().setSize(64, 64);
+            entityManager.addEntity(entity);
+        }
+        batch = new CountingBatch();
+    }
+    
+    @TearDown(Level.Trial)
+    public void report() {
+        if (frames > 0) {
+            System.out.println();
+            System.out.println("Per frame: " + batch.sprites / frames + " sprites, " + batch.renderCalls / frames + " render calls, " + batch.textureBinds / frames + " texture binds");
+        }
+    }
+    
+    @Benchmark
+    public void act() {
+        entityManager.act(Headless.DELTA);
+    }
+    
+    @Benchmark
+    public int draw() {
+        batch.begin();
+        entityManager.draw(batch, 0);
+        batch.end();
+        frames++;
+        return batch.sprites;
+    }
+    
+    public static class BenchmarkEntity extends TextureEntity {
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void act(float delta) {
+        }
+
+        @Override
+        public void actEnd(float delta) {
+        }
+
+        @Override
+        public void drawSub(Batch batch, float delta) {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void collision(Entity other) {
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.ray3k.themematch3.Core;
+import com.ray3k.themematch3.SpineDataCache;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Stands in for the parts of libGDX that need a display so that rendering
+ * code can be benchmarked without a GPU. GL calls do nothing and textures
+ * have a size but no pixels. Every frame lasts {@link #DELTA} seconds.
+ */
+public class Headless {
+    public static final float DELTA = 1 / 60.0f;
+    private static boolean initialized;
+    
+    public static synchronized void init() {
+        if (!initialized) {
+            GL20 gl = stub(GL20.class);
+            Gdx.gl = gl;
+            Gdx.gl20 = gl;
+            Gdx.graphics = stub(Graphics.class);
+            Core.spineDataCache = new SpineDataCache();
+            initialized = true;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class[] {type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getDeltaTime")) return DELTA;
+                Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class) return false;
+                if (returnType == int.class) return 0;
+                if (returnType == long.class) return 0L;
+                if (returnType == float.class) return 0.0f;
+                if (returnType == double.class) return 0.0;
+                return null;
+            }
+        });
+    }
+    
+    public static Texture createTexture(final int width, final int height) {
+        init();
+        return new Texture(new TextureData() {
+            @Override
+            public TextureData.TextureDataType getType() {
+                return TextureData.TextureDataType.Custom;
+            }
+
+            @Override
+            public boolean isPrepared() {
+                return true;
+            }
+
+            @Override
+            public void prepare() {
+            }
+
+            @Override
+            public Pixmap consumePixmap() {
+                return null;
+            }
+
+            @Override
+            public boolean disposePixmap() {
+                return false;
+            }
+
+            @Override
+            public void consumeCustomData(int target) {
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public Pixmap.Format getFormat() {
+                return Pixmap.Format.RGBA8888;
+            }
+
+            @Override
+            public boolean useMipMaps() {
+                return false;
+            }
+
+            @Override
+            public boolean isManaged() {
+                return false;
+            }
+        });
+    }
+    
+    /**
+     * @return An atlas that resolves every region name to the same region of
+     * a blank texture.
+     */
+    public static TextureAtlas createAtlas() {
+        final AtlasRegion region = new AtlasRegion(createTexture(1024, 1024), 0, 0, 64, 64);
+        return new TextureAtlas() {
+            @Override
+            public AtlasRegion findRegion(String name) {
+                return region;
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.ray3k.themematch3.board.Board;
+import com.ray3k.themematch3.board.Board.BoardListener;
+import com.ray3k.themematch3.board.MatchShape;
+
+/**
+ * Builds groups of the same size but different shapes on an empty board and
+ * fails if a group that bends or crosses doesn't outscore a straight line.
+ * Run with {@code gradlew benchmarks:scoringCheck}.
+ */
+public class ScoringCheck implements BoardListener {
+    private static final byte PIECE = 0;
+    private static final byte FILLER = 1;
+    private static final byte OTHER_FILLER = 2;
+    private final Board board;
+    private int points;
+    private MatchShape shape;
+    private int failures;
+    
+    public ScoringCheck() {
+        board = new Board(8, 8);
+        board.setListener(this);
+    }
+    
+    /**
+     * Clears the board and drops one matching piece into each column given.
+     * @param columns The column of every piece, in the order they are added.
+     */
+    private void drop(int... columns) {
+        board.reset();
+        points = 0;
+        shape = null;
+        for (int column : columns) {
+            board.addPiece(column, PIECE);
+        }
+    }
+    
+    /**
+     * Scores the pieces on the board.
+     */
+    private int score(String name, MatchShape expectedShape) {
+        board.checkForMatch();
+        
+        System.out.println(name + ": " + shape + ", " + points + " points");
+        if (shape != expectedShape) {
+            failures++;
+            System.out.println("Expected " + expectedShape);
+        }
+        return points;
+    }
+    
+    private void expectMore(String name, int points, String otherName, int otherPoints) {
+        if (points <= otherPoints) {
+            failures++;
+            System.out.println(name + " should outscore " + otherName);
+        }
+    }
+    
+    public void run() {
+        drop(0, 1, 2, 3, 4);
+        int line = score("Line of 5", MatchShape.LINE);
+        
+        drop(0, 1, 2, 0, 0);
+        int l = score("L of 5", MatchShape.L);
+        
+        drop(0, 1, 2, 1, 1);
+        int t = score("T of 5", MatchShape.T);
+        
+        //the arms of the cross rest on pieces that don't match
+        drop(1, 1, 1);
+        board.addPiece(0, FILLER);
+        board.addPiece(0, PIECE);
+        board.addPiece(2, OTHER_FILLER);
+        board.addPiece(2, PIECE);
+        int cross = score("Cross of 5", MatchShape.CROSS);
+        
+        expectMore("L of 5", l, "a line of 5", line);
+        expectMore("T of 5", t, "a line of 5", line);
+        expectMore("Cross of 5", cross, "an L of 5", l);
+        
+        for (MatchShape matchShape : MatchShape.VALUES) {
+            if (matchShape != MatchShape.LINE) {
+                for (int size = Board.MINIMUM_MATCH; size <= 7; size++) {
+                    expectMore(matchShape + " of " + size, Board.getPoints(size, matchShape), "a line of " + size, Board.getPoints(size, MatchShape.LINE));
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void pieceAdded(int cell, byte piece) {
+    }
+
+    @Override
+    public void pieceMoved(int fromCell, int toCell) {
+    }
+
+    @Override
+    public void pieceRemoved(int cell) {
+    }
+
+    @Override
+    public void scored(int points, int matchSize, MatchShape shape) {
+        this.points += points;
+        this.shape = shape;
+    }
+
+    @Override
+    public void levelIncreased(int level) {
+    }
+    
+    public static void main(String[] args) {
+        ScoringCheck check = new ScoringCheck();
+        check.run();
+        System.out.println(check.failures + " failures");
+        if (check.failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.ray3k.themematch3.ScrollingTiledDrawable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tiling a 32x32 region over areas of increasing size while the offset
+ * scrolls, as the menu and game backgrounds do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScrollingTiledDrawableBenchmark {
+    @Param({"64", "800", "4096"})
+    public int size;
+    private ScrollingTiledDrawable drawable;
+    private CountingBatch batch;
+    private int frames;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        drawable = new ScrollingTiledDrawable(new TextureRegion(Headless.createTexture(32, 32)));
+        batch = new CountingBatch();
+    }
+    
+    @TearDown(Level.Trial)
+    public void report() {
+        if (frames > 0) {
+            System.out.println();
+            System.out.println("Per frame: " + batch.sprites / frames + " sprites, " + batch.renderCalls / frames + " render calls");
+        }
+    }
+    
+    @Benchmark
+    public int draw() {
+        drawable.setOffsetX((drawable.getOffsetX() + 1.5f) % 32);
+        drawable.setOffsetY((drawable.getOffsetY() + 0.5f) % 32);
+        batch.begin();
+        drawable.draw(batch, 0, 0, size, size);
+        batch.end();
+        frames++;
+        return batch.sprites;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.SkeletonBinary;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses every skeleton the game loads at startup, from JSON or from the
+ * binary files written by {@code gradlew core:convertSkeletons}. Each fork
+ * measures a single cold pass, the way the loading screen sees it. Run from
+ * the core assets directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class SkeletonLoadBenchmark {
+    @Param({"json", "skel"})
+    public String format;
+    private TextureAtlas atlas;
+    private Array<FileHandle> files;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        atlas = Headless.createAtlas();
+        files = new Array<FileHandle>();
+        for (FileHandle jsonFile : new FileHandle("themematch3_data/spine").list("json")) {
+            FileHandle file = jsonFile.sibling(jsonFile.nameWithoutExtension() + "." + format);
+            if (!file.exists()) {
+                throw new IllegalStateException(file.path() + " is missing, run gradlew core:convertSkeletons first.");
+            }
+            files.add(file);
+        }
+    }
+    
+    @Benchmark
+    public int load() {
+        int bones = 0;
+        for (FileHandle file : files) {
+            SkeletonData skeletonData;
+            if (format.equals("skel")) {
+                skeletonData = new SkeletonBinary(atlas).readSkeletonData(file);
+            } else {
+                skeletonData = new SkeletonJson(atlas).readSkeletonData(file);
+            }
+            bones += skeletonData.getBones().size;
+        }
+        return bones;
+    }
+}
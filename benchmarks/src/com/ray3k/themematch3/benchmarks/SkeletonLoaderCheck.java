@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.BoneData;
+import com.esotericsoftware.spine.EventData;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Skin;
+import com.esotericsoftware.spine.SlotData;
+import com.ray3k.themematch3.SkeletonDataLoader;
+import com.ray3k.themematch3.SkeletonDataLoader.SkeletonDataLoaderParameter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses every piece skeleton at once on a thread pool through one
+ * {@link SkeletonDataLoader}, the way an asset manager with several worker
+ * threads would, then hands each result over in a shuffled order. Fails if
+ * any skeleton comes back different from a single threaded load of the same
+ * file. First checks that every binary skeleton written by
+ * {@link com.ray3k.themematch3.SkeletonConverter} reads back the same as its
+ * JSON. Run with {@code gradlew benchmarks:skeletonLoaderCheck}, which
+ * converts the skeletons first.
+ */
+public class SkeletonLoaderCheck {
+    public static final int DEFAULT_ROUNDS = 50;
+    private final SkeletonDataLoader loader;
+    private final SkeletonDataLoaderParameter parameter;
+    private final Array<FileHandle> files;
+    private final Array<String> expected;
+    private final ExecutorService executor;
+    private int loads;
+    private int failures;
+    
+    public SkeletonLoaderCheck(String extension, int threads) {
+        loader = new SkeletonDataLoader(new FileHandleResolver() {
+            @Override
+            public FileHandle resolve(String fileName) {
+                return new FileHandle(fileName);
+            }
+        });
+        TextureAtlas atlas = Headless.createAtlas();
+        parameter = new SkeletonDataLoaderParameter(atlas);
+        
+        files = new Array<FileHandle>();
+        expected = new Array<String>();
+        for (FileHandle jsonFile : new FileHandle("themematch3_data/spine").list("json")) {
+            FileHandle file = jsonFile.sibling(jsonFile.nameWithoutExtension() + "." + extension);
+            if (!file.exists()) {
+                throw new IllegalStateException(file.path() + " is missing, run gradlew core:convertSkeletons first.");
+            }
+            files.add(file);
+            expected.add(describe(SkeletonDataLoader.read(file, atlas, 1)));
+        }
+        
+        executor = Executors.newFixedThreadPool(threads);
+    }
+    
+    /**
+     * @return Everything that tells skeletons apart, down to the setup pose
+     * and the attachment names in each skin.
+     */
+    private static String describe(SkeletonData skeletonData) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(skeletonData.getWidth()).append(' ').append(skeletonData.getHeight()).append('|');
+        for (BoneData bone : skeletonData.getBones()) {
+            builder.append(bone.getName()).append('<').append(bone.getParent() == null ? null : bone.getParent().getName());
+            builder.append(' ').append(bone.getLength()).append(' ').append(bone.getX()).append(' ').append(bone.getY());
+            builder.append(' ').append(bone.getRotation()).append(' ').append(bone.getScaleX()).append(' ').append(bone.getScaleY());
+            builder.append(' ').append(bone.getShearX()).append(' ').append(bone.getShearY()).append(',');
+        }
+        builder.append('|');
+        for (SlotData slot : skeletonData.getSlots()) {
+            builder.append(slot.getName()).append('<').append(slot.getBoneData().getName());
+            builder.append(' ').append(slot.getColor()).append(' ').append(slot.getDarkColor());
+            builder.append(' ').append(slot.getAttachmentName()).append(' ').append(slot.getBlendMode()).append(',');
+        }
+        builder.append('|');
+        Array<String> names = new Array<String>();
+        for (Skin skin : skeletonData.getSkins()) {
+            builder.append(skin.getName()).append('[');
+            for (int slot = 0; slot < skeletonData.getSlots().size; slot++) {
+                names.clear();
+                skin.findNamesForSlot(slot, names);
+                names.sort();
+                builder.append(slot).append(names).append(' ');
+            }
+            builder.append("],");
+        }
+        builder.append('|');
+        for (EventData event : skeletonData.getEvents()) {
+            builder.append(event.getName()).append(' ').append(event.getInt()).append(' ').append(event.getFloat()).append(' ').append(event.getString()).append(',');
+        }
+        builder.append('|');
+        for (Animation animation : skeletonData.getAnimations()) {
+            builder.append(animation.getName()).append(':').append(animation.getDuration()).append(' ').append(animation.getTimelines().size).append(',');
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Reads every skeleton converted by {@code gradlew core:convertSkeletons}
+     * back with SkeletonBinary and compares it to the JSON it came from.
+     * @return The number of skeletons that differ or have no binary file.
+     */
+    public static int checkRoundTrip() {
+        TextureAtlas atlas = Headless.createAtlas();
+        int mismatches = 0;
+        for (FileHandle jsonFile : new FileHandle("themematch3_data/spine").list("json")) {
+            FileHandle skelFile = jsonFile.sibling(jsonFile.nameWithoutExtension() + ".skel");
+            if (!skelFile.exists()) {
+                mismatches++;
+                System.out.println(skelFile.path() + " is missing");
+                continue;
+            }
+            
+            String json = describe(SkeletonDataLoader.read(jsonFile, atlas, 1));
+            String binary = describe(SkeletonDataLoader.read(skelFile, atlas, 1));
+            if (!json.equals(binary)) {
+                mismatches++;
+                System.out.println(skelFile.path() + " doesn't match its JSON:\n  " + json + "\n  " + binary);
+            }
+        }
+        return mismatches;
+    }
+    
+    public void round() throws Exception {
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (final FileHandle file : files) {
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    loader.loadAsync(null, file.path(), file, parameter);
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < files.size; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order);
+        for (int i : order) {
+            FileHandle file = files.get(i);
+            SkeletonData skeletonData = loader.loadSync(null, file.path(), file, parameter);
+            loads++;
+            if (skeletonData == null || !describe(skeletonData).equals(expected.get(i))) {
+                failures++;
+                System.out.println("Wrong skeleton for " + file.path());
+            }
+        }
+        
+        if (loader.getPendingCount() != 0) {
+            failures++;
+            System.out.println(loader.getPendingCount() + " results left in the loader");
+        }
+    }
+    
+    public void dispose() {
+        executor.shutdown();
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+        String extension = args.length > 1 ? args[1] : "json";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors() * 2;
+        
+        int mismatches = checkRoundTrip();
+        System.out.println("Round trip: " + mismatches + " binary skeletons differ from their JSON");
+        
+        SkeletonLoaderCheck check = new SkeletonLoaderCheck(extension, threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            check.round();
+        }
+        check.dispose();
+        
+        System.out.println(check.loads + " " + extension + " skeletons on " + threads + " threads in " + String.format("%.3f", (System.nanoTime() - start) / 1e9) + "s, " + check.failures + " failures");
+        if (check.failures > 0 || mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
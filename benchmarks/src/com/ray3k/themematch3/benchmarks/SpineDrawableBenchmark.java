@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.ray3k.themematch3.Core;
+import com.ray3k.themematch3.SpineDrawable;
+import com.ray3k.themematch3.SpineDrawable.SpineDrawableTemplate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A frame of piece drawables, each one animated, posed and submitted to the
+ * batch the way the board's pieces are. Run from the core assets directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SpineDrawableBenchmark {
+    @Param({"1", "64", "256", "4096"})
+    public int count;
+    @Param({"apple"})
+    public String skeleton;
+    /**
+     * Draws inside one premultiplied alpha blend state, the way the board's
+     * piece layer does.
+     */
+    @Param({"false", "true"})
+    public boolean blendLayer;
+    private SpineDrawable[] drawables;
+    private CountingBatch batch;
+    private int frames;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        SkeletonJson skeletonJson = new SkeletonJson(Headless.createAtlas());
+        SkeletonData skeletonData = skeletonJson.readSkeletonData(new FileHandle("themematch3_data/spine/" + skeleton + ".json"));
+        SkeletonRenderer skeletonRenderer = new SkeletonRenderer();
+        SpineDrawableTemplate template = new SpineDrawableTemplate();
+        Animation animation = Core.spineDataCache.getAnimation(skeletonData, "animation");
+        
+        drawables = new SpineDrawable[count];
+        for (int i = 0; i < count; i++) {
+            drawables[i] = new SpineDrawable(skeletonData, skeletonRenderer, template);
+            drawables[i].getAnimationState().setAnimation(0, animation, true);
+        }
+        batch = new CountingBatch();
+    }
+    
+    @TearDown(Level.Trial)
+    public void report() {
+        if (frames > 0) {
+            System.out.println();
+            System.out.println("Per frame: " + batch.sprites / frames + " sprites, " + batch.vertices / frames + " vertices, " + batch.flushes / frames + " flushes, " + batch.renderCalls / frames + " render calls, " + batch.textureBinds / frames + " texture binds, " + batch.blendChanges / frames + " blend changes");
+        }
+    }
+    
+    @Benchmark
+    public int draw() {
+        for (int i = 0; i < drawables.length; i++) {
+            drawables[i].update(Headless.DELTA);
+        }
+        
+        batch.begin();
+        if (blendLayer) batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (int i = 0; i < drawables.length; i++) {
+            drawables[i].draw(batch, (i % 64) * 64, (i / 64) * 64, 64, 64);
+        }
+        if (blendLayer) batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        batch.end();
+        frames++;
+        return batch.sprites;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses assets on a fixed number of worker threads. The asset manager only
+ * works on one asset at a time, so CPU bound work such as reading skeletons,
+ * skins, fonts and sounds is submitted here as soon as its inputs are ready
+ * and collected later by a {@link ParsedAssetLoader}. Work submitted here must
+ * not touch GL; textures are still uploaded by the asset manager on the
+ * render thread.
+ */
+public class AssetParser implements Disposable {
+    public static final int MAX_THREADS = 8;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, Future<?>> results;
+    private final int threads;
+    
+    public AssetParser() {
+        this(getDefaultThreads());
+    }
+    
+    public AssetParser(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        this.threads = threads;
+        results = new ConcurrentHashMap<String, Future<?>>();
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "AssetParser-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * @return One thread per core, leaving one for the render thread, up to
+     * {@link #MAX_THREADS}.
+     */
+    public static int getDefaultThreads() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_THREADS));
+    }
+    
+    /**
+     * Starts parsing an asset. Does nothing if the asset was already submitted
+     * and not yet taken.
+     */
+    @SuppressWarnings("unchecked")
+    public void submit(String fileName, Callable<?> task) {
+        FutureTask<Object> future = new FutureTask<Object>((Callable<Object>) task);
+        if (results.putIfAbsent(fileName, future) == null) {
+            executor.execute(future);
+        }
+    }
+    
+    public boolean isSubmitted(String fileName) {
+        return results.containsKey(fileName);
+    }
+    
+    /**
+     * @return True if the asset was submitted and has finished parsing, so
+     * that taking it will not wait.
+     */
+    public boolean isDone(String fileName) {
+        Future<?> future = results.get(fileName);
+        return future != null && future.isDone();
+    }
+    
+    /**
+     * Waits for a submitted asset to finish parsing and forgets it.
+     * @throws GdxRuntimeException if nothing was submitted for the file or
+     * parsing failed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T take(String fileName, Class<T> type) {
+        Future<?> future = results.remove(fileName);
+        if (future == null) throw new GdxRuntimeException("Asset was not submitted for parsing: " + fileName);
+        
+        try {
+            return (T) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException("Interrupted while parsing " + fileName, e);
+        } catch (ExecutionException e) {
+            throw new GdxRuntimeException("Couldn't parse " + fileName, e.getCause());
+        }
+    }
+    
+    /**
+     * Cancels every asset that has not been taken. Assets that already
+     * finished are disposed if they can be.
+     */
+    public void clear() {
+        for (String fileName : results.keySet()) {
+            Future<?> future = results.remove(fileName);
+            if (future == null || future.cancel(true)) continue;
+            
+            try {
+                Object asset = future.get();
+                if (asset instanceof Disposable) ((Disposable) asset).dispose();
+            } catch (Exception e) {
+                //nothing to dispose
+            }
+        }
+    }
+    
+    /**
+     * @return The number of assets submitted but not yet taken.
+     */
+    public int getPendingCount() {
+        return results.size();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+        executor.shutdownNow();
+    }
+}
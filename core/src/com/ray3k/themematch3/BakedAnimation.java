@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.BlendMode;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Skin;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+
+/**
+ * A skeleton's animation sampled at a fixed rate into the vertices the
+ * {@link com.esotericsoftware.spine.SkeletonRenderer} would submit. Drawing
+ * a frame copies its quads and translates them, so every instance of the
+ * skeleton shares the cost of posing it. Only region attachments can be
+ * baked, bones can't be scaled per instance and the skeleton color is fixed
+ * at bake time.
+ */
+public class BakedAnimation {
+    public static final float DEFAULT_FRAME_RATE = 30.0f;
+    private static final int QUAD_SIZE = 20;
+    private final float frameRate;
+    private final int frameCount;
+    private final FloatArray vertices;
+    private final Array<Texture> textures;
+    private final Array<BlendMode> blendModes;
+    private final IntArray frameStarts;
+    private final boolean premultipliedAlpha;
+    private final float[] quad = new float[QUAD_SIZE];
+    
+    private BakedAnimation(float frameRate, int frameCount, boolean premultipliedAlpha) {
+        this.frameRate = frameRate;
+        this.frameCount = frameCount;
+        this.premultipliedAlpha = premultipliedAlpha;
+        vertices = new FloatArray();
+        textures = new Array<Texture>();
+        blendModes = new Array<BlendMode>();
+        frameStarts = new IntArray(frameCount + 1);
+    }
+    
+    /**
+     * Samples the animation from time 0 to its duration. An animation with no
+     * duration, or no animation at all, bakes the setup pose as one frame.
+     * @param animation May be null.
+     * @throws IllegalArgumentException if a visible attachment is not a
+     * region attachment.
+     */
+    public static BakedAnimation bake(SkeletonData skeletonData, Skin skin, Animation animation, float frameRate, boolean premultipliedAlpha) {
+        Skeleton skeleton = new Skeleton(skeletonData);
+        skeleton.setSkin(skin);
+        skeleton.setToSetupPose();
+        AnimationState animationState = new AnimationState(Core.spineDataCache.getAnimationStateData(skeletonData, 0));
+        if (animation != null) animationState.setAnimation(0, animation, true);
+        
+        int frameCount = animation == null ? 1 : Math.max(1, (int) Math.ceil(animation.getDuration() * frameRate));
+        BakedAnimation baked = new BakedAnimation(frameRate, frameCount, premultipliedAlpha);
+        float[] quad = baked.quad;
+        for (int frame = 0; frame < frameCount; frame++) {
+            if (frame > 0) animationState.update(1 / frameRate);
+            animationState.apply(skeleton);
+            skeleton.setPosition(0, 0);
+            skeleton.updateWorldTransform();
+            
+            baked.frameStarts.add(baked.textures.size);
+            Color skeletonColor = skeleton.getColor();
+            Array<Slot> drawOrder = skeleton.getDrawOrder();
+            for (int i = 0; i < drawOrder.size; i++) {
+                Slot slot = drawOrder.get(i);
+                Attachment attachment = slot.getAttachment();
+                if (attachment == null) continue;
+                if (!(attachment instanceof RegionAttachment)) {
+                    throw new IllegalArgumentException("Only region attachments can be baked: " + attachment.getName());
+                }
+                
+                //same vertex layout and color math as SkeletonRenderer
+                RegionAttachment region = (RegionAttachment) attachment;
+                region.computeWorldVertices(slot.getBone(), quad, 0, 5);
+                Color color = region.getColor(), slotColor = slot.getColor();
+                float alpha = skeletonColor.a * slotColor.a * color.a * 255;
+                float multiplier = premultipliedAlpha ? alpha : 255;
+                float packedColor = NumberUtils.intToFloatColor(((int) alpha << 24)
+                        | ((int) (skeletonColor.b * slotColor.b * color.b * multiplier) << 16)
+                        | ((int) (skeletonColor.g * slotColor.g * color.g * multiplier) << 8)
+                        | (int) (skeletonColor.r * slotColor.r * color.r * multiplier));
+                float[] uvs = region.getUVs();
+                for (int u = 0, v = 2; u < 8; u += 2, v += 5) {
+                    quad[v] = packedColor;
+                    quad[v + 1] = uvs[u];
+                    quad[v + 2] = uvs[u + 1];
+                }
+                
+                baked.vertices.addAll(quad, 0, QUAD_SIZE);
+                baked.textures.add(region.getRegion().getTexture());
+                baked.blendModes.add(slot.getData().getBlendMode());
+            }
+        }
+        baked.frameStarts.add(baked.textures.size);
+        
+        return baked;
+    }
+    
+    /**
+     * @return The frame shown at the given time, looping.
+     */
+    public int getFrame(float time) {
+        int frame = (int) (time * frameRate) % frameCount;
+        return frame < 0 ? frame + frameCount : frame;
+    }
+    
+    /**
+     * Submits a frame with the skeleton at x, y. Must be called from the
+     * render thread.
+     */
+    public void draw(Batch batch, int frame, float x, float y) {
+        float[] items = vertices.items;
+        BlendMode blendMode = null;
+        for (int i = frameStarts.get(frame), end = frameStarts.get(frame + 1); i < end; i++) {
+            System.arraycopy(items, i * QUAD_SIZE, quad, 0, QUAD_SIZE);
+            for (int v = 0; v < QUAD_SIZE; v += 5) {
+                quad[v] += x;
+                quad[v + 1] += y;
+            }
+            
+            BlendMode quadBlendMode = blendModes.get(i);
+            if (quadBlendMode != blendMode) {
+                blendMode = quadBlendMode;
+                batch.setBlendFunction(blendMode.getSource(premultipliedAlpha), blendMode.getDest());
+            }
+            batch.draw(textures.get(i), quad, 0, QUAD_SIZE);
+        }
+    }
+
+    public float getFrameRate() {
+        return frameRate;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * @return The number of quads drawn for the frame.
+     */
+    public int getQuadCount(int frame) {
+        return frameStarts.get(frame + 1) - frameStarts.get(frame);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.scenes.scene2d.Group;
+
+/**
+ * A group that draws all of its children with one blend function and
+ * restores the batch's blend function afterwards. Children that use the same
+ * blending, such as premultiplied alpha skeletons, then don't flush the
+ * batch between each other.
+ */
+public class BlendGroup extends Group {
+    private int blendSrcFunc;
+    private int blendDstFunc;
+    
+    /**
+     * Blends premultiplied alpha.
+     */
+    public BlendGroup() {
+        this(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+    
+    public BlendGroup(int blendSrcFunc, int blendDstFunc) {
+        this.blendSrcFunc = blendSrcFunc;
+        this.blendDstFunc = blendDstFunc;
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        int previousSrcFunc = batch.getBlendSrcFunc();
+        int previousDstFunc = batch.getBlendDstFunc();
+        batch.setBlendFunction(blendSrcFunc, blendDstFunc);
+        super.draw(batch, parentAlpha);
+        batch.setBlendFunction(previousSrcFunc, previousDstFunc);
+    }
+    
+    public void setBlendFunction(int blendSrcFunc, int blendDstFunc) {
+        this.blendSrcFunc = blendSrcFunc;
+        this.blendDstFunc = blendDstFunc;
+    }
+
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+}
@@ -26,12 +26,17 @@ package com.ray3k.themematch3;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.PixmapLoader;
+import com.badlogic.gdx.assets.loaders.PixmapLoader.PixmapParameter;
+import com.badlogic.gdx.assets.loaders.SkinLoader;
+import com.badlogic.gdx.assets.loaders.SkinLoader.SkinParameter;
+import com.badlogic.gdx.assets.loaders.SoundLoader;
+import com.badlogic.gdx.assets.loaders.SoundLoader.SoundParameter;
 import com.badlogic.gdx.assets.loaders.resolvers.LocalFileHandleResolver;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.PixmapPacker;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Array;
@@ -40,6 +45,8 @@ import com.badlogic.gdx.utils.TimeUtils;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonRenderer;
 import com.ray3k.themematch3.SkeletonDataLoader.SkeletonDataLoaderParameter;
+import com.ray3k.themematch3.SpineDrawable.SpineDrawableTemplate;
+import com.ray3k.themematch3.entities.GridEntity;
 import com.ray3k.themematch3.states.GameOverState;
 import com.ray3k.themematch3.states.GameState;
 import com.ray3k.themematch3.states.LoadingState;
@@ -58,12 +65,29 @@ public class Core extends ApplicationAdapter {
     
     public static Core instance;
     public static AssetManager assetManager;
+    public static AssetParser assetParser;
+    public static LoadingPipeline loadingPipeline;
+    /**
+     * Worker threads used to parse assets while loading.
+     */
+    public static int parserThreads = AssetParser.getDefaultThreads();
     public static StateManager stateManager;
-    public static SpriteBatch spriteBatch;
+    public static ProfilingSpriteBatch spriteBatch;
     public static TextureAtlas generatedAtlas;
     public static SkeletonRenderer skeletonRenderer;
+    public static SoundBank soundBank;
+    public static SpineDataCache spineDataCache;
+    public static SpineActorPool pieceActorPool;
+    /**
+     * Pieces draw a baked pose instead of posing a skeleton each frame.
+     */
+    public static boolean bakeAnimations = true;
     public static PixmapPacker pixmapPacker;
     public static ObjectMap<String, Array<String>> imagePacks;
+    /**
+     * The file each skeleton is loaded from, by name without extension.
+     */
+    public static ObjectMap<String, String> skeletonPaths;
     
     private final static long MS_PER_UPDATE = 10;
     private long previous;
@@ -115,8 +139,15 @@ public class Core extends ApplicationAdapter {
     }
     
     public void initManagers() {
-        assetManager = new AssetManager(new LocalFileHandleResolver(), true);
-        assetManager.setLoader(SkeletonData.class, new SkeletonDataLoader(new LocalFileHandleResolver()));
+        assetParser = new AssetParser(parserThreads);
+        
+        LocalFileHandleResolver resolver = new LocalFileHandleResolver();
+        assetManager = new AssetManager(resolver, true);
+        assetManager.setLoader(SkeletonData.class, new ParsedAssetLoader<SkeletonData, SkeletonDataLoaderParameter>(resolver, assetParser, SkeletonData.class, new SkeletonDataLoader(resolver)));
+        assetManager.setLoader(Skin.class, new ParsedAssetLoader<Skin, SkinParameter>(resolver, assetParser, Skin.class, new SkinLoader(resolver)));
+        assetManager.setLoader(Sound.class, new ParsedAssetLoader<Sound, SoundParameter>(resolver, assetParser, Sound.class, new SoundLoader(resolver)));
+        assetManager.setLoader(Pixmap.class, new ParsedAssetLoader<Pixmap, PixmapParameter>(resolver, assetParser, Pixmap.class, new PixmapLoader(resolver)));
+        loadingPipeline = new LoadingPipeline();
         
         stateManager = new StateManager(this);
         stateManager.addState("loading", new LoadingState("menu", this));
@@ -124,14 +155,25 @@ public class Core extends ApplicationAdapter {
         stateManager.addState("game", new GameState(this));
         stateManager.addState("game-over", new GameOverState(this));
         
-        spriteBatch = new SpriteBatch();
+        spriteBatch = new ProfilingSpriteBatch();
         
         pixmapPacker = new PixmapPacker(2048, 2048, Pixmap.Format.RGBA8888, 5, true, new PixmapPacker.GuillotineStrategy());
         
         skeletonRenderer = new SkeletonRenderer();
         skeletonRenderer.setPremultipliedAlpha(true);
         
+        spineDataCache = new SpineDataCache();
+        
+        soundBank = new SoundBank();
+        
+        SpineDrawableTemplate pieceTemplate = new SpineDrawableTemplate();
+        pieceTemplate.minWidth = GridEntity.PIECE_SIZE;
+        pieceTemplate.minHeight = GridEntity.PIECE_SIZE;
+        pieceActorPool = new SpineActorPool(skeletonRenderer, pieceTemplate);
+        pieceActorPool.setBaking(bakeAnimations);
+        
         imagePacks = new ObjectMap<String, Array<String>>();
+        skeletonPaths = new ObjectMap<String, String>();
 //        for (String name : new String[] {"cards", "resources"}) {
 //            imagePacks.put(DATA_PATH + "/" + name, new Array<String>());
 //        }
@@ -149,7 +191,9 @@ public class Core extends ApplicationAdapter {
                 stateManager.act(MS_PER_UPDATE / 1000.0f);
                 lag -= MS_PER_UPDATE;
             }
+            soundBank.update(elapsed / 1000.0f);
 
+            spriteBatch.startFrame();
             stateManager.draw(spriteBatch, lag / MS_PER_UPDATE);
         } catch (Exception e) {
             e.printStackTrace();
@@ -182,6 +226,7 @@ public class Core extends ApplicationAdapter {
     @Override
     public void dispose() {
         assetManager.dispose();
+        assetParser.dispose();
         stateManager.dispose();
         pixmapPacker.dispose();
         if (generatedAtlas != null) {
@@ -189,35 +234,21 @@ public class Core extends ApplicationAdapter {
         }
     }
     
+    /**
+     * Clears loaded assets and starts the loading pipeline over. The loading
+     * state moves it along.
+     */
     public void loadAssets() {
         assetManager.clear();
-        
-        FileHandle directory = Gdx.files.local(DATA_PATH + "/spine");
-        for (FileHandle atlasFile : directory.list("atlas")) {
-            SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(atlasFile.path());
-            for (FileHandle jsonFile : directory.list("json")) {
-                assetManager.load(jsonFile.path(), SkeletonData.class, parameter);
-            }
-            break;
-        }
-        
-        directory = Gdx.files.local(DATA_PATH + "/ui");
-        for (FileHandle file : directory.list("json")) {
-            assetManager.load(file.path(), Skin.class);
-        }
-        
-        directory = Gdx.files.local(DATA_PATH + "/sfx");
-        for (FileHandle file : directory.list()) {
-            assetManager.load(file.path(), Sound.class);
-        }
-        
-        for (String packName : imagePacks.keys()) {
-            FileHandle folder = Gdx.files.local(packName);
-            for (FileHandle file : folder.list()) {
-                assetManager.load(file.path(), Pixmap.class);
-                imagePacks.get(packName).add(file.nameWithoutExtension());
-            }
-        }
+        assetParser.clear();
+        loadingPipeline.start();
+    }
+
+    /**
+     * @return The loaded skeleton with the given file name, without extension.
+     */
+    public static SkeletonData getSkeletonData(String name) {
+        return assetManager.get(skeletonPaths.get(name), SkeletonData.class);
     }
 
     @Override
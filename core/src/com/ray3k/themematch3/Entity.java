@@ -23,7 +23,7 @@
  */
 package com.ray3k.themematch3;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 
@@ -59,7 +59,7 @@ public abstract class Entity {
     
     public abstract void actEnd(float delta);
     
-    public abstract void draw(SpriteBatch spriteBatch, float delta);
+    public abstract void draw(Batch batch, float delta);
     
     public abstract void destroy();
     
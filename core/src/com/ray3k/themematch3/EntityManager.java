@@ -24,12 +24,18 @@
 
 package com.ray3k.themematch3;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.utils.Array;
 import java.util.Comparator;
 import java.util.Iterator;
 
 public class EntityManager {
+    private static final Comparator<Entity> DEPTH_COMPARATOR = new Comparator<Entity>() {
+        @Override
+        public int compare(Entity o1, Entity o2) {
+            return o2.getDepth() - o1.getDepth();
+        }
+    };
     private final Array<Entity> entities;
     
     public EntityManager() {
@@ -84,17 +90,12 @@ public class EntityManager {
         }
     }
     
-    public void draw(SpriteBatch spriteBatch, float delta) {
-        entities.sort(new Comparator<Entity>() {
-            @Override
-            public int compare(Entity o1, Entity o2) {
-                return o2.getDepth() - o1.getDepth();
-            }
-        });
+    public void draw(Batch batch, float delta) {
+        entities.sort(DEPTH_COMPARATOR);
         
         for (Entity entity : entities) {
             if (!entity.isDestroyed()) {
-                entity.draw(spriteBatch, delta);
+                entity.draw(batch, delta);
             }
         }
     }
@@ -0,0 +1,369 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.esotericsoftware.spine.SkeletonData;
+import com.ray3k.themematch3.SkeletonDataLoader.SkeletonDataLoaderParameter;
+import com.ray3k.themematch3.SpineActorPool.SkinPool;
+import com.ray3k.themematch3.entities.GridEntity;
+import com.ray3k.themematch3.states.GameState;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import static com.ray3k.themematch3.Core.DATA_PATH;
+
+/**
+ * Loads every asset the game needs once, in stages. Parsing happens on the
+ * {@link AssetParser}'s workers and GL uploads happen on the render thread
+ * through the asset manager, so {@link #update()} never waits on either and
+ * can be called every frame by the loading screen.
+ */
+public class LoadingPipeline {
+    private static final String PACK_TASK = "pack";
+    /**
+     * Time spent building piece actors per update.
+     */
+    private static final long PREWARM_NANOS = 4000000L;
+    private Stage stage;
+    private String spineAtlasPath;
+    private final Array<String> skinPaths;
+    private final Array<String> soundPaths;
+    private final Array<String> pixmapPaths;
+    private final Array<String> pixmapNames;
+    private final AtomicInteger packed;
+    private SkinPool[] piecePools;
+    private int prewarmCount;
+    private int prewarmed;
+    private int prewarmTotal;
+    
+    public enum Stage {
+        /**
+         * Lists the files to load.
+         */
+        DISCOVER(0.0f),
+        /**
+         * Decodes sounds and the images to pack.
+         */
+        DECODE(0.3f),
+        /**
+         * Packs the decoded images into pages.
+         */
+        PACK(0.1f),
+        /**
+         * Uploads the packed pages and the atlases.
+         */
+        UPLOAD(0.2f),
+        /**
+         * Parses skeletons and skins against the uploaded atlases.
+         */
+        BIND(0.3f),
+        /**
+         * Builds the first piece actors, a few each frame.
+         */
+        PREWARM(0.1f),
+        DONE(0.0f);
+        
+        private final float weight;
+        
+        private Stage(float weight) {
+            this.weight = weight;
+        }
+    }
+    
+    public LoadingPipeline() {
+        skinPaths = new Array<String>();
+        soundPaths = new Array<String>();
+        pixmapPaths = new Array<String>();
+        pixmapNames = new Array<String>();
+        packed = new AtomicInteger();
+        stage = Stage.DONE;
+    }
+    
+    /**
+     * Starts over from discovery. Assets loaded by a previous run should be
+     * cleared from the asset manager first.
+     */
+    public void start() {
+        stage = Stage.DISCOVER;
+    }
+    
+    /**
+     * Moves the pipeline along without blocking.
+     * @return True once every stage is done.
+     */
+    public boolean update() {
+        switch (stage) {
+            case DISCOVER:
+                discover();
+                decode();
+                stage = Stage.DECODE;
+                break;
+            case DECODE:
+                if (Core.assetManager.update()) {
+                    pack();
+                    stage = Stage.PACK;
+                }
+                break;
+            case PACK:
+                if (Core.assetParser.isDone(PACK_TASK)) {
+                    Core.assetParser.take(PACK_TASK, Object.class);
+                    upload();
+                    stage = Stage.UPLOAD;
+                }
+                break;
+            case UPLOAD:
+                if (Core.assetManager.update()) {
+                    bind();
+                    stage = Stage.BIND;
+                }
+                break;
+            case BIND:
+                if (Core.assetManager.update()) {
+                    Core.soundBank.resolve(Core.assetManager);
+                    startPrewarm();
+                    stage = Stage.PREWARM;
+                }
+                break;
+            case PREWARM:
+                if (prewarm()) {
+                    stage = Stage.DONE;
+                }
+                break;
+        }
+        return stage == Stage.DONE;
+    }
+    
+    private void discover() {
+        FileHandle directory = Gdx.files.local(DATA_PATH + "/spine");
+        Core.skeletonPaths.clear();
+        for (FileHandle jsonFile : directory.list("json")) {
+            Core.skeletonPaths.put(jsonFile.nameWithoutExtension(), SkeletonDataLoader.preferBinary(jsonFile).path());
+        }
+        spineAtlasPath = null;
+        for (FileHandle atlasFile : directory.list("atlas")) {
+            spineAtlasPath = atlasFile.path();
+            break;
+        }
+        
+        skinPaths.clear();
+        directory = Gdx.files.local(DATA_PATH + "/ui");
+        for (FileHandle file : directory.list("json")) {
+            skinPaths.add(file.path());
+        }
+        
+        soundPaths.clear();
+        directory = Gdx.files.local(DATA_PATH + "/sfx");
+        for (FileHandle file : directory.list()) {
+            soundPaths.add(file.path());
+        }
+        
+        pixmapPaths.clear();
+        pixmapNames.clear();
+        for (String packName : Core.imagePacks.keys()) {
+            Array<String> names = Core.imagePacks.get(packName);
+            names.clear();
+            for (FileHandle file : Gdx.files.local(packName).list()) {
+                pixmapPaths.add(file.path());
+                pixmapNames.add(file.nameWithoutExtension());
+                names.add(file.nameWithoutExtension());
+            }
+        }
+    }
+    
+    private void decode() {
+        for (final String path : soundPaths) {
+            Core.assetParser.submit(path, new Callable<Sound>() {
+                @Override
+                public Sound call() {
+                    return Gdx.audio.newSound(resolve(path));
+                }
+            });
+            Core.assetManager.load(path, Sound.class);
+        }
+        
+        for (final String path : pixmapPaths) {
+            Core.assetParser.submit(path, new Callable<Pixmap>() {
+                @Override
+                public Pixmap call() {
+                    return new Pixmap(resolve(path));
+                }
+            });
+            Core.assetManager.load(path, Pixmap.class);
+        }
+    }
+    
+    /**
+     * Copies the decoded images into the packer's pages on a worker. The
+     * images are released once they are packed.
+     */
+    private void pack() {
+        final Array<Pixmap> pixmaps = new Array<Pixmap>();
+        for (String path : pixmapPaths) {
+            pixmaps.add(Core.assetManager.get(path, Pixmap.class));
+        }
+        
+        packed.set(0);
+        Core.assetParser.submit(PACK_TASK, new Callable<Object>() {
+            @Override
+            public Object call() {
+                for (int i = 0; i < pixmaps.size; i++) {
+                    Core.pixmapPacker.pack(pixmapNames.get(i), pixmaps.get(i));
+                    packed.incrementAndGet();
+                }
+                return null;
+            }
+        });
+    }
+    
+    private void upload() {
+        for (String path : pixmapPaths) {
+            Core.assetManager.unload(path);
+        }
+        
+        if (Core.generatedAtlas == null) {
+            Core.generatedAtlas = Core.pixmapPacker.generateTextureAtlas(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
+        } else {
+            Core.pixmapPacker.updateTextureAtlas(Core.generatedAtlas, Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
+        }
+        
+        if (spineAtlasPath != null) {
+            Core.assetManager.load(spineAtlasPath, TextureAtlas.class);
+        }
+        for (String path : skinPaths) {
+            Core.assetManager.load(getSkinAtlasPath(path), TextureAtlas.class);
+        }
+    }
+    
+    private void bind() {
+        if (spineAtlasPath != null) {
+            final TextureAtlas atlas = Core.assetManager.get(spineAtlasPath, TextureAtlas.class);
+            SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(spineAtlasPath);
+            for (final String path : Core.skeletonPaths.values()) {
+                Core.assetParser.submit(path, new Callable<SkeletonData>() {
+                    @Override
+                    public SkeletonData call() {
+                        return SkeletonDataLoader.read(resolve(path), atlas, 1);
+                    }
+                });
+                Core.assetManager.load(path, SkeletonData.class, parameter);
+            }
+        }
+        
+        for (final String path : skinPaths) {
+            final TextureAtlas atlas = Core.assetManager.get(getSkinAtlasPath(path), TextureAtlas.class);
+            Core.assetParser.submit(path, new Callable<Skin>() {
+                @Override
+                public Skin call() {
+                    //the skin's fonts use regions from its atlas, so this doesn't touch GL
+                    Skin skin = new Skin(atlas);
+                    skin.load(resolve(path));
+                    return skin;
+                }
+            });
+            Core.assetManager.load(path, Skin.class);
+        }
+    }
+    
+    private void startPrewarm() {
+        piecePools = GridEntity.getPiecePools();
+        prewarmCount = GridEntity.getPrewarmCount(GameState.boardColumns, GameState.boardRows);
+        prewarmed = 0;
+        prewarmTotal = 0;
+        for (SkinPool pool : piecePools) {
+            prewarmTotal += Math.max(0, prewarmCount - pool.getFree());
+        }
+    }
+    
+    /**
+     * Builds piece actors until the frame's time budget is spent.
+     * @return True once every pool holds its share.
+     */
+    private boolean prewarm() {
+        long end = TimeUtils.nanoTime() + PREWARM_NANOS;
+        for (SkinPool pool : piecePools) {
+            while (pool.getFree() < prewarmCount) {
+                if (TimeUtils.nanoTime() > end) return false;
+                pool.prewarm(pool.getFree() + 1);
+                prewarmed++;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return The atlas the skin loader expects next to a skin file.
+     */
+    private static String getSkinAtlasPath(String skinPath) {
+        return resolve(skinPath).pathWithoutExtension() + ".atlas";
+    }
+    
+    private static FileHandle resolve(String path) {
+        return Core.assetManager.getFileHandleResolver().resolve(path);
+    }
+    
+    /**
+     * @return Progress through every stage, from 0 to 1.
+     */
+    public float getProgress() {
+        float progress = 0;
+        for (Stage completed : Stage.values()) {
+            if (completed == stage) break;
+            progress += completed.weight;
+        }
+        return progress + stage.weight * getStageProgress();
+    }
+    
+    /**
+     * @return Progress through the current stage, from 0 to 1.
+     */
+    public float getStageProgress() {
+        switch (stage) {
+            case DECODE:
+            case UPLOAD:
+            case BIND:
+                return Core.assetManager.getProgress();
+            case PACK:
+                return pixmapPaths.size == 0 ? 1.0f : packed.get() / (float) pixmapPaths.size;
+            case PREWARM:
+                return prewarmTotal == 0 ? 1.0f : prewarmed / (float) prewarmTotal;
+            case DONE:
+                return 1.0f;
+            default:
+                return 0.0f;
+        }
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+}
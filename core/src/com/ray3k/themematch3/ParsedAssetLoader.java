@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the asset manager assets that were parsed by an {@link AssetParser}.
+ * Assets that were never submitted to the parser are loaded by the wrapped
+ * loader as usual. Waiting for the parser happens in {@link #loadAsync}, off
+ * the render thread.
+ */
+public class ParsedAssetLoader<T, P extends AssetLoaderParameters<T>> extends AsynchronousAssetLoader<T, P> {
+    private final AssetParser parser;
+    private final Class<T> type;
+    private final AsynchronousAssetLoader<T, P> loader;
+    private final ConcurrentHashMap<String, T> results;
+    
+    public ParsedAssetLoader(FileHandleResolver resolver, AssetParser parser, Class<T> type, AsynchronousAssetLoader<T, P> loader) {
+        super(resolver);
+        this.parser = parser;
+        this.type = type;
+        this.loader = loader;
+        results = new ConcurrentHashMap<String, T>();
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, P parameter) {
+        return loader.getDependencies(fileName, file, parameter);
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, P parameter) {
+        if (parser.isSubmitted(fileName)) {
+            results.put(fileName, parser.take(fileName, type));
+        } else {
+            loader.loadAsync(manager, fileName, file, parameter);
+        }
+    }
+
+    @Override
+    public T loadSync(AssetManager manager, String fileName, FileHandle file, P parameter) {
+        T asset = results.remove(fileName);
+        if (asset != null) return asset;
+        return loader.loadSync(manager, fileName, file, parameter);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * A SpriteBatch that counts what makes it flush. Call {@link #startFrame()}
+ * before drawing a frame, the getters then report the previous frame.
+ */
+public class ProfilingSpriteBatch extends SpriteBatch {
+    private int flushes;
+    private int textureBinds;
+    private int blendChanges;
+    private int frameStartRenderCalls;
+    private int lastFlushes;
+    private int lastRenderCalls;
+    private int lastTextureBinds;
+    private int lastBlendChanges;
+    
+    public void startFrame() {
+        lastFlushes = flushes;
+        lastRenderCalls = totalRenderCalls - frameStartRenderCalls;
+        lastTextureBinds = textureBinds;
+        lastBlendChanges = blendChanges;
+        
+        flushes = 0;
+        textureBinds = 0;
+        blendChanges = 0;
+        frameStartRenderCalls = totalRenderCalls;
+    }
+
+    /**
+     * Counts every flush, including those with nothing to render.
+     */
+    @Override
+    public void flush() {
+        flushes++;
+        super.flush();
+    }
+
+    @Override
+    protected void switchTexture(Texture texture) {
+        textureBinds++;
+        super.switchTexture(texture);
+    }
+
+    /**
+     * setBlendFunction passes through here as well.
+     */
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        if (srcFuncColor != getBlendSrcFunc() || dstFuncColor != getBlendDstFunc()
+                || srcFuncAlpha != getBlendSrcFuncAlpha() || dstFuncAlpha != getBlendDstFuncAlpha()) blendChanges++;
+        super.setBlendFunctionSeparate(srcFuncColor, dstFuncColor, srcFuncAlpha, dstFuncAlpha);
+    }
+
+    /**
+     * @return The flushes of the previous frame, including the one at each
+     * end.
+     */
+    public int getFlushes() {
+        return lastFlushes;
+    }
+
+    /**
+     * @return The draw calls the previous frame sent to the GPU.
+     */
+    public int getRenderCalls() {
+        return lastRenderCalls;
+    }
+
+    /**
+     * @return How often the previous frame switched to a different texture.
+     */
+    public int getTextureBinds() {
+        return lastTextureBinds;
+    }
+
+    public int getBlendChanges() {
+        return lastBlendChanges;
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.DataOutput;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Converts exported Spine JSON to the binary format read by
+ * {@link com.esotericsoftware.spine.SkeletonBinary} in the 3.6 runtime, so
+ * that startup does not have to parse JSON. Only what the game's skeletons
+ * use is supported: bones, slots, region attachments, events and bone and
+ * slot timelines. Anything else fails the conversion instead of being
+ * dropped. Run with {@code gradlew core:convertSkeletons}.
+ */
+public class SkeletonConverter {
+    private static final String[] TRANSFORM_MODES = {"normal", "onlyTranslation", "noRotationOrReflection", "noScale", "noScaleOrReflection"};
+    private static final String[] BLEND_MODES = {"normal", "additive", "multiply", "screen"};
+    private static final int SLOT_ATTACHMENT = 0;
+    private static final int SLOT_COLOR = 1;
+    private static final int SLOT_TWO_COLOR = 2;
+    private static final int BONE_ROTATE = 0;
+    private static final int BONE_TRANSLATE = 1;
+    private static final int BONE_SCALE = 2;
+    private static final int BONE_SHEAR = 3;
+    private static final int CURVE_LINEAR = 0;
+    private static final int CURVE_STEPPED = 1;
+    private static final int CURVE_BEZIER = 2;
+    private static final int ATTACHMENT_REGION = 0;
+    private final JsonReader jsonReader;
+    private final ObjectIntMap<String> bones;
+    private final ObjectIntMap<String> slots;
+    private DataOutput output;
+    private String fileName;
+    
+    public SkeletonConverter() {
+        jsonReader = new JsonReader();
+        bones = new ObjectIntMap<String>();
+        slots = new ObjectIntMap<String>();
+    }
+    
+    /**
+     * @return The binary skeleton data.
+     * @throws IllegalArgumentException if the skeleton uses something that
+     * can't be converted.
+     */
+    public byte[] convert(FileHandle jsonFile) throws IOException {
+        fileName = jsonFile.name();
+        JsonValue root = jsonReader.parse(jsonFile);
+        bones.clear();
+        slots.clear();
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        output = new DataOutput(bytes);
+        
+        JsonValue skeleton = root.get("skeleton");
+        writeString(skeleton == null ? "" : skeleton.getString("hash", ""));
+        writeString(skeleton == null ? "" : skeleton.getString("spine", ""));
+        output.writeFloat(skeleton == null ? 0 : skeleton.getFloat("width", 0));
+        output.writeFloat(skeleton == null ? 0 : skeleton.getFloat("height", 0));
+        //no nonessential data, the runtime ignores it
+        output.writeBoolean(false);
+        
+        writeBones(root.get("bones"));
+        writeSlots(root.get("slots"));
+        
+        unsupported(root, "ik");
+        unsupported(root, "transform");
+        unsupported(root, "path");
+        writeInt(0);
+        writeInt(0);
+        writeInt(0);
+        
+        writeSkins(root.get("skins"));
+        writeEvents(root.get("events"));
+        writeAnimations(root.get("animations"));
+        
+        output.flush();
+        return bytes.toByteArray();
+    }
+    
+    private void writeBones(JsonValue bonesMap) throws IOException {
+        writeInt(bonesMap == null ? 0 : bonesMap.size);
+        if (bonesMap == null) return;
+        
+        for (JsonValue boneMap = bonesMap.child; boneMap != null; boneMap = boneMap.next) {
+            String name = boneMap.getString("name");
+            writeString(name);
+            if (bones.size > 0) {
+                String parent = boneMap.getString("parent", null);
+                if (parent == null || !bones.containsKey(parent)) fail("Parent bone not found: " + parent);
+                writeInt(bones.get(parent, 0));
+            }
+            output.writeFloat(boneMap.getFloat("rotation", 0));
+            output.writeFloat(boneMap.getFloat("x", 0));
+            output.writeFloat(boneMap.getFloat("y", 0));
+            output.writeFloat(boneMap.getFloat("scaleX", 1));
+            output.writeFloat(boneMap.getFloat("scaleY", 1));
+            output.writeFloat(boneMap.getFloat("shearX", 0));
+            output.writeFloat(boneMap.getFloat("shearY", 0));
+            output.writeFloat(boneMap.getFloat("length", 0));
+            writeInt(indexOf(TRANSFORM_MODES, boneMap.getString("transform", "normal"), "transform mode"));
+            bones.put(name, bones.size);
+        }
+    }
+    
+    private void writeSlots(JsonValue slotsMap) throws IOException {
+        writeInt(slotsMap == null ? 0 : slotsMap.size);
+        if (slotsMap == null) return;
+        
+        for (JsonValue slotMap = slotsMap.child; slotMap != null; slotMap = slotMap.next) {
+            String name = slotMap.getString("name");
+            writeString(name);
+            writeInt(bone(slotMap.getString("bone")));
+            output.writeInt(color(slotMap.getString("color", "ffffffff")));
+            String dark = slotMap.getString("dark", null);
+            output.writeInt(dark == null ? -1 : color(dark));
+            writeString(slotMap.getString("attachment", null));
+            writeInt(indexOf(BLEND_MODES, slotMap.getString("blend", "normal"), "blend mode"));
+            slots.put(name, slots.size);
+        }
+    }
+    
+    private void writeSkins(JsonValue skinsMap) throws IOException {
+        JsonValue defaultSkin = skinsMap == null ? null : skinsMap.get("default");
+        writeSkin(defaultSkin);
+        
+        int count = skinsMap == null ? 0 : skinsMap.size - (defaultSkin == null ? 0 : 1);
+        writeInt(count);
+        if (skinsMap == null) return;
+        for (JsonValue skinMap = skinsMap.child; skinMap != null; skinMap = skinMap.next) {
+            if (skinMap == defaultSkin) continue;
+            writeString(skinMap.name);
+            writeSkin(skinMap);
+        }
+    }
+    
+    private void writeSkin(JsonValue skinMap) throws IOException {
+        writeInt(skinMap == null ? 0 : skinMap.size);
+        if (skinMap == null) return;
+        
+        for (JsonValue slotEntry = skinMap.child; slotEntry != null; slotEntry = slotEntry.next) {
+            writeInt(slot(slotEntry.name));
+            writeInt(slotEntry.size);
+            for (JsonValue entry = slotEntry.child; entry != null; entry = entry.next) {
+                writeString(entry.name);
+                writeAttachment(entry);
+            }
+        }
+    }
+    
+    private void writeAttachment(JsonValue map) throws IOException {
+        String name = map.getString("name", null);
+        writeString(name == null || name.equals(map.name) ? null : name);
+        
+        String type = map.getString("type", "region");
+        if (!type.equals("region")) fail("Unsupported attachment type: " + type);
+        output.writeByte(ATTACHMENT_REGION);
+        writeString(map.getString("path", null));
+        output.writeFloat(map.getFloat("rotation", 0));
+        output.writeFloat(map.getFloat("x", 0));
+        output.writeFloat(map.getFloat("y", 0));
+        output.writeFloat(map.getFloat("scaleX", 1));
+        output.writeFloat(map.getFloat("scaleY", 1));
+        output.writeFloat(map.getFloat("width", 32));
+        output.writeFloat(map.getFloat("height", 32));
+        output.writeInt(color(map.getString("color", "ffffffff")));
+    }
+    
+    private void writeEvents(JsonValue eventsMap) throws IOException {
+        writeInt(eventsMap == null ? 0 : eventsMap.size);
+        if (eventsMap == null) return;
+        
+        for (JsonValue eventMap = eventsMap.child; eventMap != null; eventMap = eventMap.next) {
+            writeString(eventMap.name);
+            writeInt(eventMap.getInt("int", 0), false);
+            output.writeFloat(eventMap.getFloat("float", 0));
+            writeString(eventMap.getString("string", ""));
+        }
+    }
+    
+    private void writeAnimations(JsonValue animationsMap) throws IOException {
+        writeInt(animationsMap == null ? 0 : animationsMap.size);
+        if (animationsMap == null) return;
+        
+        for (JsonValue animationMap = animationsMap.child; animationMap != null; animationMap = animationMap.next) {
+            writeString(animationMap.name);
+            
+            JsonValue slotsMap = animationMap.get("slots");
+            writeInt(slotsMap == null ? 0 : slotsMap.size);
+            if (slotsMap != null) for (JsonValue slotMap = slotsMap.child; slotMap != null; slotMap = slotMap.next) {
+                writeInt(slot(slotMap.name));
+                writeInt(slotMap.size);
+                for (JsonValue timelineMap = slotMap.child; timelineMap != null; timelineMap = timelineMap.next) {
+                    writeSlotTimeline(timelineMap);
+                }
+            }
+            
+            JsonValue bonesMap = animationMap.get("bones");
+            writeInt(bonesMap == null ? 0 : bonesMap.size);
+            if (bonesMap != null) for (JsonValue boneMap = bonesMap.child; boneMap != null; boneMap = boneMap.next) {
+                writeInt(bone(boneMap.name));
+                writeInt(boneMap.size);
+                for (JsonValue timelineMap = boneMap.child; timelineMap != null; timelineMap = timelineMap.next) {
+                    writeBoneTimeline(timelineMap);
+                }
+            }
+            
+            //ik, transform, path, deform, draw order and event timelines
+            unsupported(animationMap, "ik");
+            unsupported(animationMap, "transform");
+            unsupported(animationMap, "paths");
+            unsupported(animationMap, "deform");
+            unsupported(animationMap, "drawOrder");
+            unsupported(animationMap, "draworder");
+            unsupported(animationMap, "events");
+            for (int i = 0; i < 6; i++) {
+                writeInt(0);
+            }
+        }
+    }
+    
+    private void writeSlotTimeline(JsonValue timelineMap) throws IOException {
+        String type = timelineMap.name;
+        if (type.equals("attachment")) {
+            output.writeByte(SLOT_ATTACHMENT);
+            writeInt(timelineMap.size);
+            for (JsonValue frame = timelineMap.child; frame != null; frame = frame.next) {
+                output.writeFloat(frame.getFloat("time"));
+                writeString(frame.getString("name", null));
+            }
+        } else if (type.equals("color")) {
+            output.writeByte(SLOT_COLOR);
+            writeInt(timelineMap.size);
+            for (JsonValue frame = timelineMap.child; frame != null; frame = frame.next) {
+                output.writeFloat(frame.getFloat("time"));
+                output.writeInt(color(frame.getString("color")));
+                if (frame.next != null) writeCurve(frame);
+            }
+        } else if (type.equals("twoColor")) {
+            output.writeByte(SLOT_TWO_COLOR);
+            writeInt(timelineMap.size);
+            for (JsonValue frame = timelineMap.child; frame != null; frame = frame.next) {
+                output.writeFloat(frame.getFloat("time"));
+                output.writeInt(color(frame.getString("light")));
+                output.writeInt(color(frame.getString("dark")));
+                if (frame.next != null) writeCurve(frame);
+            }
+        } else {
+            fail("Unsupported slot timeline: " + type);
+        }
+    }
+    
+    private void writeBoneTimeline(JsonValue timelineMap) throws IOException {
+        String type = timelineMap.name;
+        if (type.equals("rotate")) {
+            output.writeByte(BONE_ROTATE);
+            writeInt(timelineMap.size);
+            for (JsonValue frame = timelineMap.child; frame != null; frame = frame.next) {
+                output.writeFloat(frame.getFloat("time"));
+                output.writeFloat(frame.getFloat("angle", 0));
+                if (frame.next != null) writeCurve(frame);
+            }
+            return;
+        }
+        
+        if (type.equals("translate")) {
+            output.writeByte(BONE_TRANSLATE);
+        } else if (type.equals("scale")) {
+            output.writeByte(BONE_SCALE);
+        } else if (type.equals("shear")) {
+            output.writeByte(BONE_SHEAR);
+        } else {
+            fail("Unsupported bone timeline: " + type);
+        }
+        
+        //the 3.6 JSON reader defaults every axis to 0, scale included
+        writeInt(timelineMap.size);
+        for (JsonValue frame = timelineMap.child; frame != null; frame = frame.next) {
+            output.writeFloat(frame.getFloat("time"));
+            output.writeFloat(frame.getFloat("x", 0));
+            output.writeFloat(frame.getFloat("y", 0));
+            if (frame.next != null) writeCurve(frame);
+        }
+    }
+    
+    private void writeCurve(JsonValue frame) throws IOException {
+        JsonValue curve = frame.get("curve");
+        if (curve == null) {
+            output.writeByte(CURVE_LINEAR);
+        } else if (curve.isString() && curve.asString().equals("stepped")) {
+            output.writeByte(CURVE_STEPPED);
+        } else if (curve.isArray() && curve.size == 4) {
+            output.writeByte(CURVE_BEZIER);
+            for (JsonValue value = curve.child; value != null; value = value.next) {
+                output.writeFloat(value.asFloat());
+            }
+        } else {
+            fail("Unsupported curve: " + curve);
+        }
+    }
+    
+    private void unsupported(JsonValue map, String name) {
+        JsonValue value = map.get(name);
+        if (value != null && value.size > 0) fail("Unsupported: " + name);
+    }
+    
+    private void fail(String message) {
+        throw new IllegalArgumentException(fileName + ": " + message);
+    }
+    
+    private int bone(String name) {
+        int index = bones.get(name, -1);
+        if (index == -1) fail("Bone not found: " + name);
+        return index;
+    }
+    
+    private int slot(String name) {
+        int index = slots.get(name, -1);
+        if (index == -1) fail("Slot not found: " + name);
+        return index;
+    }
+    
+    private int indexOf(String[] values, String value, String description) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        fail("Unsupported " + description + ": " + value);
+        return -1;
+    }
+    
+    /**
+     * @return RRGGBBAA or RRGGBB hex as an int.
+     */
+    private int color(String hex) {
+        return (int) Long.parseLong(hex, 16);
+    }
+    
+    /**
+     * Variable length int, as read by DataInput.readInt(boolean).
+     */
+    private void writeInt(int value) throws IOException {
+        writeInt(value, true);
+    }
+    
+    private void writeInt(int value, boolean optimizePositive) throws IOException {
+        if (!optimizePositive) value = (value << 1) ^ (value >> 31);
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+    
+    /**
+     * Character count plus one, then each character in UTF-8, the way
+     * libGDX's DataInput reads it back. 0 is null and 1 is empty.
+     */
+    private void writeString(String value) throws IOException {
+        output.writeString(value);
+    }
+    
+    /**
+     * Writes a .skel next to every .json skeleton in the directories given,
+     * or the game's spine directory.
+     */
+    public static void main(String[] args) throws IOException {
+        String[] directories = args.length > 0 ? args : new String[] {Core.DATA_PATH + "/spine"};
+        SkeletonConverter converter = new SkeletonConverter();
+        int converted = 0;
+        for (String directory : directories) {
+            FileHandle folder = new FileHandle(new File(directory));
+            for (FileHandle jsonFile : folder.list("json")) {
+                byte[] data = converter.convert(jsonFile);
+                FileHandle skelFile = jsonFile.sibling(jsonFile.nameWithoutExtension() + ".skel");
+                skelFile.writeBytes(data, false);
+                System.out.println(jsonFile.path() + " -> " + skelFile.name() + " (" + jsonFile.length() + " -> " + data.length + " bytes)");
+                converted++;
+            }
+        }
+        System.out.println(converted + " skeletons converted");
+    }
+}
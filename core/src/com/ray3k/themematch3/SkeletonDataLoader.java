@@ -35,6 +35,7 @@ import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.spine.SkeletonBinary;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonJson;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * {@link AssetLoader} for {@link SkeletonData} instances. Loads an exported
@@ -56,21 +57,39 @@ import com.esotericsoftware.spine.SkeletonJson;
  * }
  * </pre>
  *
+ * <p>
+ * Results are kept per asset between {@link #loadAsync} and
+ * {@link #loadSync}, so several skeletons can be parsed at once on worker
+ * threads.
+ *
  * @author Alvaro Barbeira
  */
 public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, SkeletonDataLoader.SkeletonDataLoaderParameter> {
 
-    SkeletonData skeletonData;
+    private final ConcurrentHashMap<String, SkeletonData> results;
 
     public SkeletonDataLoader(FileHandleResolver resolver) {
         super(resolver);
+        results = new ConcurrentHashMap<String, SkeletonData>();
+    }
+    
+    /**
+     * Binary skeletons load faster than JSON. They are made by
+     * {@link SkeletonConverter}.
+     * @return The .skel file next to the JSON file if there is one at least as
+     * new, otherwise the JSON file.
+     */
+    public static FileHandle preferBinary(FileHandle jsonFile) {
+        FileHandle skelFile = jsonFile.sibling(jsonFile.nameWithoutExtension() + ".skel");
+        if (skelFile.exists() && skelFile.lastModified() >= jsonFile.lastModified()) {
+            return skelFile;
+        }
+        return jsonFile;
     }
 
     @Override
     public void loadAsync(AssetManager manager, String fileName, FileHandle file,
             SkeletonDataLoaderParameter parameter) {
-        skeletonData = null;
-        
         TextureAtlas atlas;
         if (parameter.atlasName != null) {
             atlas = manager.get(parameter.atlasName, TextureAtlas.class);
@@ -78,22 +97,39 @@ public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, Sk
             atlas = parameter.atlas;
         }
 
+        results.put(fileName, read(file, atlas, parameter.scale));
+    }
+
+    @Override
+    public SkeletonData loadSync(AssetManager manager, String fileName,
+            FileHandle file, SkeletonDataLoaderParameter parameter) {
+        return results.remove(fileName);
+    }
+    
+    /**
+     * Parses a skeleton without keeping any state, binary if the file has a
+     * 'skel' extension and JSON otherwise. Safe to call from several threads
+     * as long as nothing modifies the atlas.
+     */
+    public static SkeletonData read(FileHandle file, TextureAtlas atlas, float scale) {
         String extension = file.extension();
         if (extension.toLowerCase().equals("skel")) {
             SkeletonBinary skeletonBinary = new SkeletonBinary(atlas);
-            skeletonBinary.setScale(parameter.scale);
-            skeletonData = skeletonBinary.readSkeletonData(file);
+            skeletonBinary.setScale(scale);
+            return skeletonBinary.readSkeletonData(file);
         } else {
             SkeletonJson skeletonJson = new SkeletonJson(atlas);
-            skeletonJson.setScale(parameter.scale);
-            skeletonData = skeletonJson.readSkeletonData(file);
+            skeletonJson.setScale(scale);
+            return skeletonJson.readSkeletonData(file);
         }
     }
-
-    @Override
-    public SkeletonData loadSync(AssetManager manager, String fileName,
-            FileHandle file, SkeletonDataLoaderParameter parameter) {
-        return skeletonData;
+    
+    /**
+     * @return The number of skeletons parsed but not yet handed to the asset
+     * manager.
+     */
+    public int getPendingCount() {
+        return results.size();
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
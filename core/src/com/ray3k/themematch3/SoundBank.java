@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Plays sound effects by {@link SoundId}. Handles are resolved once after
+ * loading. Plays requested during a frame are queued and started together in
+ * {@link #update(float)}, so identical plays within a frame are merged into
+ * one at the loudest requested volume. Each sound is also limited to a number
+ * of voices, where a voice is considered busy for the length of its wav file;
+ * plays beyond the limit are dropped.
+ */
+public class SoundBank {
+    public static final int DEFAULT_MAX_VOICES = 4;
+    private final Sound[] sounds;
+    private final float[] durations;
+    private final double[][] voiceEndTimes;
+    private final boolean[] requested;
+    private final float[] volumes;
+    private final float[] pitches;
+    private double time;
+    private long played;
+    private long merged;
+    private long dropped;
+    
+    public SoundBank() {
+        int count = SoundId.VALUES.length;
+        sounds = new Sound[count];
+        durations = new float[count];
+        voiceEndTimes = new double[count][];
+        requested = new boolean[count];
+        volumes = new float[count];
+        pitches = new float[count];
+        for (int i = 0; i < count; i++) {
+            setMaxVoices(SoundId.VALUES[i], DEFAULT_MAX_VOICES);
+        }
+    }
+    
+    /**
+     * Looks up every sound in the asset manager and reads the length of each
+     * wav file. Call once the sounds have finished loading.
+     */
+    public void resolve(AssetManager assetManager) {
+        for (int i = 0; i < sounds.length; i++) {
+            SoundId id = SoundId.VALUES[i];
+            sounds[i] = assetManager.get(id.getPath(), Sound.class);
+            durations[i] = readDuration(assetManager.getFileHandleResolver().resolve(id.getPath()));
+        }
+    }
+    
+    /**
+     * Estimates the length of a PCM wav file from its byte rate.
+     * @return The length in seconds or 0 if the header can not be read.
+     */
+    private static float readDuration(FileHandle file) {
+        byte[] header = new byte[32];
+        InputStream input = null;
+        try {
+            input = file.read();
+            int read = 0;
+            while (read < header.length) {
+                int count = input.read(header, read, header.length - read);
+                if (count == -1) return 0;
+                read += count;
+            }
+        } catch (IOException e) {
+            return 0;
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        
+        int byteRate = (header[28] & 0xFF) | (header[29] & 0xFF) << 8 | (header[30] & 0xFF) << 16 | (header[31] & 0xFF) << 24;
+        if (byteRate <= 0) return 0;
+        return Math.max(0, file.length() - 44) / (float) byteRate;
+    }
+    
+    public void play(SoundId id) {
+        play(id, 1.0f, 1.0f);
+    }
+    
+    public void play(SoundId id, float volume) {
+        play(id, volume, 1.0f);
+    }
+    
+    /**
+     * Queues a play for the end of the frame. A second request for the same
+     * sound in the same frame is merged into the first.
+     * @param pitch .5 to 2. 1 is default
+     */
+    public void play(SoundId id, float volume, float pitch) {
+        int index = id.ordinal();
+        if (requested[index]) {
+            merged++;
+            if (volume > volumes[index]) {
+                volumes[index] = volume;
+                pitches[index] = pitch;
+            }
+        } else {
+            requested[index] = true;
+            volumes[index] = volume;
+            pitches[index] = pitch;
+        }
+    }
+    
+    /**
+     * Starts the plays queued this frame. Call once per frame.
+     */
+    public void update(float delta) {
+        time += delta;
+        
+        for (int i = 0; i < requested.length; i++) {
+            if (!requested[i]) continue;
+            requested[i] = false;
+            
+            Sound sound = sounds[i];
+            if (sound == null) continue;
+            
+            double[] endTimes = voiceEndTimes[i];
+            int voice = -1;
+            for (int j = 0; j < endTimes.length; j++) {
+                if (endTimes[j] <= time) {
+                    voice = j;
+                    break;
+                }
+            }
+            
+            if (voice == -1) {
+                dropped++;
+            } else {
+                endTimes[voice] = time + durations[i] / pitches[i];
+                sound.play(volumes[i], pitches[i], 0.0f);
+                played++;
+            }
+        }
+    }
+    
+    public void setMaxVoices(SoundId id, int voices) {
+        voiceEndTimes[id.ordinal()] = new double[voices];
+    }
+    
+    public int getMaxVoices(SoundId id) {
+        return voiceEndTimes[id.ordinal()].length;
+    }
+    
+    public float getDuration(SoundId id) {
+        return durations[id.ordinal()];
+    }
+    
+    public Sound getSound(SoundId id) {
+        return sounds[id.ordinal()];
+    }
+
+    public long getPlayed() {
+        return played;
+    }
+
+    /**
+     * @return The number of plays that were folded into another play of the
+     * same sound in the same frame.
+     */
+    public long getMerged() {
+        return merged;
+    }
+
+    /**
+     * @return The number of plays skipped because every voice of the sound
+     * was busy.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+    
+    public void resetCounters() {
+        played = 0;
+        merged = 0;
+        dropped = 0;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Skin;
+import com.ray3k.themematch3.SpineDrawable.SpineDrawableTemplate;
+
+/**
+ * Keeps ready {@link PooledImage} actors for each skeleton and skin. Building
+ * a {@link SpineDrawable} creates a skeleton and animation state, so pieces
+ * are built ahead of time and reused. Actors are reset when they are
+ * obtained and return to their pool when removed from the stage.
+ */
+public class SpineActorPool {
+    private final SkeletonRenderer skeletonRenderer;
+    private final SpineDrawableTemplate template;
+    private final ObjectMap<SkeletonData, ObjectMap<String, SkinPool>> pools;
+    private boolean baking;
+    
+    public SpineActorPool(SkeletonRenderer skeletonRenderer, SpineDrawableTemplate template) {
+        this.skeletonRenderer = skeletonRenderer;
+        this.template = new SpineDrawableTemplate(template);
+        pools = new ObjectMap<SkeletonData, ObjectMap<String, SkinPool>>();
+    }
+    
+    /**
+     * Looks up the pool once so that obtaining actors on the hot path does
+     * not need to.
+     */
+    public SkinPool getPool(SkeletonData skeletonData, String skinName) {
+        ObjectMap<String, SkinPool> skins = pools.get(skeletonData);
+        if (skins == null) {
+            skins = new ObjectMap<String, SkinPool>();
+            pools.put(skeletonData, skins);
+        }
+        
+        SkinPool pool = skins.get(skinName);
+        if (pool == null) {
+            pool = new SkinPool(skeletonData, skinName);
+            skins.put(skinName, pool);
+        }
+        return pool;
+    }
+    
+    /**
+     * Bakes the setup pose of pools created from now on, so that their actors
+     * draw a {@link BakedAnimation} instead of posing a skeleton.
+     */
+    public void setBaking(boolean baking) {
+        this.baking = baking;
+    }
+
+    public boolean isBaking() {
+        return baking;
+    }
+    
+    /**
+     * Builds actors until the pool for the skeleton and skin holds at least
+     * count of them.
+     */
+    public void prewarm(SkeletonData skeletonData, String skinName, int count) {
+        getPool(skeletonData, skinName).prewarm(count);
+    }
+    
+    /**
+     * @return The number of free actors across every pool.
+     */
+    public int getFree() {
+        int free = 0;
+        for (ObjectMap<String, SkinPool> skins : pools.values()) {
+            for (SkinPool pool : skins.values()) {
+                free += pool.getFree();
+            }
+        }
+        return free;
+    }
+    
+    public class SkinPool extends Pool<PooledImage> {
+        private final SkeletonData skeletonData;
+        private final String skinName;
+        private final Skin skin;
+        private BakedAnimation bakedAnimation;
+        private int created;
+        
+        private SkinPool(SkeletonData skeletonData, String skinName) {
+            this.skeletonData = skeletonData;
+            this.skinName = skinName;
+            skin = Core.spineDataCache.getSkin(skeletonData, skinName);
+            
+            if (baking) {
+                try {
+                    bakedAnimation = BakedAnimation.bake(skeletonData, skin, null, BakedAnimation.DEFAULT_FRAME_RATE, skeletonRenderer.getPremultipliedAlpha());
+                } catch (IllegalArgumentException e) {
+                    //fall back to posing the skeleton
+                    Gdx.app.error(SpineActorPool.class.getName(), "Can't bake " + skinName + ": " + e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        protected PooledImage newObject() {
+            created++;
+            SpineDrawable drawable = new SpineDrawable(skeletonData, skeletonRenderer, template);
+            drawable.getSkeleton().setSkin(skin);
+            drawable.setBakedAnimation(bakedAnimation);
+            return new PooledImage(drawable, this);
+        }
+        
+        /**
+         * @return An actor in the setup pose, with no actions and at full
+         * opacity.
+         */
+        @Override
+        public PooledImage obtain() {
+            PooledImage image = super.obtain();
+            image.restore();
+            return image;
+        }
+        
+        public void prewarm(int count) {
+            while (getFree() < count) {
+                free(newObject());
+            }
+        }
+
+        /**
+         * @return The number of actors this pool has built, in use or not.
+         */
+        public int getCreated() {
+            return created;
+        }
+
+        public SkeletonData getSkeletonData() {
+            return skeletonData;
+        }
+
+        public String getSkinName() {
+            return skinName;
+        }
+
+        /**
+         * @return The pose the pool's actors draw, or null if they pose a
+         * skeleton.
+         */
+        public BakedAnimation getBakedAnimation() {
+            return bakedAnimation;
+        }
+    }
+    
+    /**
+     * A {@link SpineImage} that belongs to a pool. Removing it from its
+     * parent, including through a remove actor action, frees it.
+     */
+    public static class PooledImage extends SpineImage {
+        private final SkinPool pool;
+        
+        private PooledImage(SpineDrawable spineDrawable, SkinPool pool) {
+            super(spineDrawable);
+            this.pool = pool;
+        }
+        
+        private void restore() {
+            clearActions();
+            setColor(Color.WHITE);
+            setScale(1.0f);
+            setRotation(0.0f);
+            setVisible(true);
+            setTouchable(Touchable.disabled);
+            setSize(getPrefWidth(), getPrefHeight());
+            SpineDrawable spineDrawable = getSpineDrawable();
+            spineDrawable.getSkeleton().setToSetupPose();
+            spineDrawable.getSkeleton().getColor().set(Color.WHITE);
+            spineDrawable.getAnimationState().clearTracks();
+            spineDrawable.setBakedAnimation(pool.bakedAnimation);
+        }
+
+        @Override
+        public boolean remove() {
+            boolean removed = super.remove();
+            if (removed) pool.free(this);
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.BoneData;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Skin;
+
+/**
+ * Holds what every instance of a skeleton can share. There is one
+ * {@link AnimationStateData} per skeleton and default mix, and it can't be
+ * changed once handed out. Skins, animations and bones are resolved by name
+ * once per skeleton so that creating instances does not search by name.
+ */
+public class SpineDataCache {
+    private final ObjectMap<SkeletonData, Entry> entries;
+    
+    public SpineDataCache() {
+        entries = new ObjectMap<SkeletonData, Entry>();
+    }
+    
+    private Entry getEntry(SkeletonData skeletonData) {
+        Entry entry = entries.get(skeletonData);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(skeletonData, entry);
+        }
+        return entry;
+    }
+    
+    /**
+     * @return The shared animation state data for the skeleton with the given
+     * default mix. Calling its setters throws
+     * {@link UnsupportedOperationException}.
+     */
+    public AnimationStateData getAnimationStateData(SkeletonData skeletonData, float defaultMix) {
+        Array<SharedAnimationStateData> datas = getEntry(skeletonData).animationStateDatas;
+        for (int i = 0; i < datas.size; i++) {
+            SharedAnimationStateData data = datas.get(i);
+            if (data.getDefaultMix() == defaultMix) return data;
+        }
+        
+        SharedAnimationStateData data = new SharedAnimationStateData(skeletonData, defaultMix);
+        datas.add(data);
+        return data;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the skeleton has no such skin.
+     */
+    public Skin getSkin(SkeletonData skeletonData, String name) {
+        Entry entry = getEntry(skeletonData);
+        Skin skin = entry.skins.get(name);
+        if (skin == null) {
+            skin = skeletonData.findSkin(name);
+            if (skin == null) throw new IllegalArgumentException("Skin not found: " + name);
+            entry.skins.put(name, skin);
+        }
+        return skin;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the skeleton has no such animation.
+     */
+    public Animation getAnimation(SkeletonData skeletonData, String name) {
+        Entry entry = getEntry(skeletonData);
+        Animation animation = entry.animations.get(name);
+        if (animation == null) {
+            animation = skeletonData.findAnimation(name);
+            if (animation == null) throw new IllegalArgumentException("Animation not found: " + name);
+            entry.animations.put(name, animation);
+        }
+        return animation;
+    }
+    
+    /**
+     * @return The index of the bone in {@link Skeleton#getBones()}.
+     * @throws IllegalArgumentException if the skeleton has no such bone.
+     */
+    public int getBoneIndex(SkeletonData skeletonData, String name) {
+        Entry entry = getEntry(skeletonData);
+        int index = entry.boneIndices.get(name, -1);
+        if (index == -1) {
+            BoneData boneData = skeletonData.findBone(name);
+            if (boneData == null) throw new IllegalArgumentException("Bone not found: " + name);
+            index = boneData.getIndex();
+            entry.boneIndices.put(name, index);
+        }
+        return index;
+    }
+    
+    /**
+     * @return The skeleton's instance of the named bone.
+     */
+    public Bone getBone(Skeleton skeleton, String name) {
+        return skeleton.getBones().get(getBoneIndex(skeleton.getData(), name));
+    }
+    
+    public void clear() {
+        entries.clear();
+    }
+    
+    private static class Entry {
+        private final Array<SharedAnimationStateData> animationStateDatas;
+        private final ObjectMap<String, Skin> skins;
+        private final ObjectMap<String, Animation> animations;
+        private final ObjectIntMap<String> boneIndices;
+        
+        public Entry() {
+            animationStateDatas = new Array<SharedAnimationStateData>(false, 2);
+            skins = new ObjectMap<String, Skin>();
+            animations = new ObjectMap<String, Animation>();
+            boneIndices = new ObjectIntMap<String>();
+        }
+    }
+    
+    /**
+     * Animation state data that is configured once and then shared by every
+     * animation state of the skeleton.
+     */
+    private static class SharedAnimationStateData extends AnimationStateData {
+        private boolean frozen;
+        
+        public SharedAnimationStateData(SkeletonData skeletonData, float defaultMix) {
+            super(skeletonData);
+            super.setDefaultMix(defaultMix);
+            frozen = true;
+        }
+
+        @Override
+        public void setDefaultMix(float defaultMix) {
+            if (frozen) throw new UnsupportedOperationException("Shared animation state data can't be changed.");
+            super.setDefaultMix(defaultMix);
+        }
+
+        @Override
+        public void setMix(String fromName, String toName, float duration) {
+            if (frozen) throw new UnsupportedOperationException("Shared animation state data can't be changed.");
+            super.setMix(fromName, toName, duration);
+        }
+
+        @Override
+        public void setMix(Animation from, Animation to, float duration) {
+            if (frozen) throw new UnsupportedOperationException("Shared animation state data can't be changed.");
+            super.setMix(from, to, duration);
+        }
+    }
+}
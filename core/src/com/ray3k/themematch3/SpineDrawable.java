@@ -24,41 +24,46 @@
 
 package com.ray3k.themematch3;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
 import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Bone;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonRenderer;
 
+/**
+ * Draws a skeleton at the current pose of its animation state. Drawing never
+ * advances the animation; {@link #update(float)} does. A {@link SpineImage}
+ * or {@link SpineImageButton} updates the drawable it shows when the stage
+ * acts. Code that uses a drawable anywhere else, such as in a style or a
+ * custom actor, is responsible for calling update once per step.
+ */
 public class SpineDrawable extends BaseDrawable {
     private Skeleton skeleton;
     private AnimationState animationState;
     private SkeletonRenderer skeletonRenderer;
     private Array<Bone> widthBones;
     private Array<Bone> heightBones;
+    private BakedAnimation bakedAnimation;
+    private float bakedTime;
 
     public SpineDrawable(SkeletonData skeletonData, SkeletonRenderer skeletonRenderer, SpineDrawableTemplate template) {
         this.skeletonRenderer = skeletonRenderer;
         
         skeleton = new Skeleton(skeletonData);
-        AnimationStateData animationStateData = new AnimationStateData(skeletonData);
-        animationState = new AnimationState(animationStateData);
+        animationState = new AnimationState(Core.spineDataCache.getAnimationStateData(skeletonData, 0));
         
         widthBones = new Array<Bone>();
         heightBones = new Array<Bone>();
         
         if (template.widthBones != null) for (String name : template.widthBones) {
-            widthBones.add(skeleton.findBone(name));
+            widthBones.add(Core.spineDataCache.getBone(skeleton, name));
         }
         
         if (template.heightBones != null) for (String name : template.heightBones) {
-            heightBones.add(skeleton.findBone(name));
+            heightBones.add(Core.spineDataCache.getBone(skeleton, name));
         }
         
         setTopHeight(template.topHeight);
@@ -84,35 +89,79 @@ public class SpineDrawable extends BaseDrawable {
     
     public void setWidthBones(String... boneNames) {
         for (String boneName : boneNames) {
-            widthBones.add(skeleton.findBone(boneName));
+            widthBones.add(Core.spineDataCache.getBone(skeleton, boneName));
         }
     }
     
     public void setHeightBones(String... boneNames) {
         for (String boneName : boneNames) {
-            heightBones.add(skeleton.findBone(boneName));
+            heightBones.add(Core.spineDataCache.getBone(skeleton, boneName));
+        }
+    }
+
+    /**
+     * Advances the animation and poses the skeleton. Drawing only submits
+     * the current pose, so this must be called once per step by whatever
+     * owns the drawable, such as a {@link SpineImage} or
+     * {@link SpineImageButton}.
+     */
+    public void update(float delta) {
+        if (bakedAnimation != null) {
+            bakedTime += delta;
+        } else {
+            animationState.update(delta);
+            animationState.apply(skeleton);
         }
     }
+    
+    /**
+     * Draws frames of the baked animation instead of posing the skeleton,
+     * starting from the first frame.
+     * @param bakedAnimation null to pose the skeleton again.
+     * @throws IllegalStateException if the drawable scales bones to its size.
+     */
+    public void setBakedAnimation(BakedAnimation bakedAnimation) {
+        if (bakedAnimation != null && (widthBones.size > 0 || heightBones.size > 0)) {
+            throw new IllegalStateException("A drawable that scales bones can't use a baked animation.");
+        }
+        this.bakedAnimation = bakedAnimation;
+        bakedTime = 0;
+    }
+
+    public BakedAnimation getBakedAnimation() {
+        return bakedAnimation;
+    }
 
+    /**
+     * Leaves the batch with the blend function it had, only switching back if
+     * the skeleton changed it. Inside a {@link BlendGroup} that already uses
+     * the skeleton's blending, consecutive drawables share one flush.
+     */
     @Override
     public void draw(Batch batch, float x, float y, float width, float height) {
-        for (Bone bone : widthBones) {
-            bone.setScaleX(width);
-        }
+        int blendSrcFunc = batch.getBlendSrcFunc();
+        int blendDstFunc = batch.getBlendDstFunc();
+        
+        if (bakedAnimation != null) {
+            bakedAnimation.draw(batch, bakedAnimation.getFrame(bakedTime), x, y);
+        } else {
+            for (Bone bone : widthBones) {
+                bone.setScaleX(width);
+            }
 
-        for (Bone bone : heightBones) {
-            bone.setScaleY(height);
-        }
+            for (Bone bone : heightBones) {
+                bone.setScaleY(height);
+            }
 
-        skeleton.setPosition(x, y);
-        animationState.update(Gdx.graphics.getDeltaTime());
-        skeleton.updateWorldTransform();
-        animationState.apply(skeleton);
+            skeleton.setPosition(x, y);
+            skeleton.updateWorldTransform();
 
-        skeletonRenderer.draw(batch, skeleton);
+            skeletonRenderer.draw(batch, skeleton);
+        }
         
-        //reset to normal blending
-        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        if (batch.getBlendSrcFunc() != blendSrcFunc || batch.getBlendDstFunc() != blendDstFunc) {
+            batch.setBlendFunction(blendSrcFunc, blendDstFunc);
+        }
     }
     
     public static class SpineDrawableTemplate {
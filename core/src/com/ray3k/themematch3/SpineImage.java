@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Group;
+import com.badlogic.gdx.scenes.scene2d.ui.Image;
+
+/**
+ * An image that advances its {@link SpineDrawable} when the stage acts.
+ * Hidden images and images outside their parent's culling area keep their
+ * pose until they can be seen again.
+ */
+public class SpineImage extends Image {
+    private final SpineDrawable spineDrawable;
+    
+    public SpineImage(SpineDrawable spineDrawable) {
+        super(spineDrawable);
+        this.spineDrawable = spineDrawable;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (isVisible() && !isCulled()) {
+            spineDrawable.update(delta);
+        }
+    }
+    
+    private boolean isCulled() {
+        Group parent = getParent();
+        if (parent == null) return false;
+        Rectangle cullingArea = parent.getCullingArea();
+        if (cullingArea == null) return false;
+        
+        float x = getX();
+        float y = getY();
+        return x > cullingArea.x + cullingArea.width || x + getWidth() < cullingArea.x
+                || y > cullingArea.y + cullingArea.height || y + getHeight() < cullingArea.y;
+    }
+
+    public SpineDrawable getSpineDrawable() {
+        return spineDrawable;
+    }
+}
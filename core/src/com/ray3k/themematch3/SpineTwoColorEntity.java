@@ -24,9 +24,8 @@
 
 package com.ray3k.themematch3;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonBounds;
 import com.esotericsoftware.spine.SkeletonData;
@@ -52,10 +51,8 @@ public abstract class SpineTwoColorEntity extends Entity {
     public void setSkeletonData(String skeletonDataPath, String animation) {
         SkeletonData skeletonData = Core.assetManager.get(skeletonDataPath, SkeletonData.class);
         skeleton = new Skeleton(skeletonData);
-        AnimationStateData animationStateData = new AnimationStateData(skeletonData);
-        animationStateData.setDefaultMix(.25f);
-        animationState = new AnimationState(animationStateData);
-        animationState.setAnimation(0, animation, true);
+        animationState = new AnimationState(Core.spineDataCache.getAnimationStateData(skeletonData, .25f));
+        animationState.setAnimation(0, Core.spineDataCache.getAnimation(skeletonData, animation), true);
         
         skeletonBounds = new SkeletonBounds();
         skeletonBounds.update(skeleton, true);
@@ -77,15 +74,15 @@ public abstract class SpineTwoColorEntity extends Entity {
     public abstract void actSub(float delta);
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(Batch batch, float delta) {
         if (skeleton != null) {
             Core.skeletonRenderer.draw(twoColorPolygonBatch, skeleton);
         }
         
-        drawSub(spriteBatch, delta);
+        drawSub(batch, delta);
     }
     
-    public abstract void drawSub(SpriteBatch spriteBatch, float delta);
+    public abstract void drawSub(Batch batch, float delta);
 
     public Skeleton getSkeleton() {
         return skeleton;
@@ -24,7 +24,7 @@
 
 package com.ray3k.themematch3;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 
@@ -45,15 +45,15 @@ public abstract class TextureEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(Batch batch, float delta) {
         if (textureRegion != null) {
-            spriteBatch.draw(textureRegion, getX() + getXspeed() * delta, getY() + getYspeed() * delta, getOffsetX(), getOffsetY(), textureRegion.getRegionWidth(), textureRegion.getRegionHeight(), getScaleX(), getScaleY(), getRotation());
+            batch.draw(textureRegion, getX() + getXspeed() * delta, getY() + getYspeed() * delta, getOffsetX(), getOffsetY(), textureRegion.getRegionWidth(), textureRegion.getRegionHeight(), getScaleX(), getScaleY(), getRotation());
         }
         
-        drawSub(spriteBatch, delta);
+        drawSub(batch, delta);
     }
     
-    public abstract void drawSub(SpriteBatch spriteBatch, float delta);
+    public abstract void drawSub(Batch batch, float delta);
     
     public TextureRegion getTextureRegion() {
         return textureRegion;
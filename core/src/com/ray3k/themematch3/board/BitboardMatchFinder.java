@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+/**
+ * Match finder for boards of up to 64 cells. Each piece type is a single long
+ * with one bit per cell, so a full search is a few shifts and ANDs per type.
+ */
+public class BitboardMatchFinder extends MatchFinder {
+    private final long[] boards;
+    private final long rowStartMask;
+    private final long[] rowMasks;
+    private final long[] columnMasks;
+    private final boolean checkColumns;
+    private long rowMask;
+    private long columnMask;
+    
+    public BitboardMatchFinder(int columns, int rows, int pieceTypes) {
+        super(columns, rows, pieceTypes);
+        if (columns * rows > 64) {
+            throw new IllegalArgumentException("Board does not fit in 64 cells: " + columns + "x" + rows);
+        }
+        
+        boards = new long[pieceTypes];
+        
+        //cells that can start a horizontal run without wrapping to the next row
+        long mask = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column <= columns - Board.MINIMUM_MATCH; column++) {
+                mask |= 1L << (row * columns + column);
+            }
+        }
+        rowStartMask = mask;
+        checkColumns = rows >= Board.MINIMUM_MATCH;
+        
+        rowMasks = new long[rows];
+        columnMasks = new long[columns];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                long bit = 1L << (row * columns + column);
+                rowMasks[row] |= bit;
+                columnMasks[column] |= bit;
+            }
+        }
+    }
+
+    @Override
+    public void set(int cell, byte previous, byte piece) {
+        long bit = 1L << cell;
+        if (previous != Board.EMPTY) boards[previous] &= ~bit;
+        if (piece != Board.EMPTY) boards[piece] |= bit;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = 0;
+        }
+        rowMask = 0;
+        columnMask = 0;
+    }
+    
+    /**
+     * @return A mask of every cell that is part of a run.
+     */
+    public long findMask() {
+        long horizontal = 0;
+        long vertical = 0;
+        int shift = columns;
+        int doubleShift = columns * 2;
+        
+        for (int i = 0; i < boards.length; i++) {
+            long board = boards[i];
+            
+            long starts = board & (board >>> 1) & (board >>> 2) & rowStartMask;
+            horizontal |= starts | (starts << 1) | (starts << 2);
+            
+            if (checkColumns) {
+                starts = board & (board >>> shift) & (board >>> doubleShift);
+                vertical |= starts | (starts << shift) | (starts << doubleShift);
+            }
+        }
+        
+        rowMask = horizontal;
+        columnMask = vertical;
+        return horizontal | vertical;
+    }
+
+    @Override
+    public boolean find() {
+        return findMask() != 0;
+    }
+
+    @Override
+    public void clearMatches() {
+        rowMask = 0;
+        columnMask = 0;
+    }
+
+    @Override
+    public void findRow(int row) {
+        long lineMask = rowMasks[row];
+        for (int i = 0; i < boards.length; i++) {
+            long board = boards[i] & lineMask;
+            long starts = board & (board >>> 1) & (board >>> 2) & rowStartMask;
+            rowMask |= starts | (starts << 1) | (starts << 2);
+        }
+    }
+
+    @Override
+    public void findColumn(int column) {
+        if (!checkColumns) return;
+        
+        long lineMask = columnMasks[column];
+        int shift = columns;
+        int doubleShift = columns * 2;
+        for (int i = 0; i < boards.length; i++) {
+            long board = boards[i] & lineMask;
+            long starts = board & (board >>> shift) & (board >>> doubleShift);
+            columnMask |= starts | (starts << shift) | (starts << doubleShift);
+        }
+    }
+
+    @Override
+    public boolean hasMatches() {
+        return (rowMask | columnMask) != 0;
+    }
+
+    @Override
+    public int nextRowMatch(int cell) {
+        return next(rowMask, cell);
+    }
+
+    @Override
+    public int nextColumnMatch(int cell) {
+        return next(columnMask, cell);
+    }
+    
+    private static int next(long mask, int cell) {
+        if (cell >= 64) return -1;
+        mask &= -1L << cell;
+        return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+    }
+
+    @Override
+    public boolean isRowMatch(int cell) {
+        return (rowMask & (1L << cell)) != 0;
+    }
+
+    @Override
+    public boolean isColumnMatch(int cell) {
+        return (columnMask & (1L << cell)) != 0;
+    }
+
+    @Override
+    public int getRowMatchCount() {
+        return Long.bitCount(rowMask);
+    }
+
+    public long getRowMask() {
+        return rowMask;
+    }
+
+    public long getColumnMask() {
+        return columnMask;
+    }
+    
+    public long getBoard(int pieceType) {
+        return boards[pieceType];
+    }
+}
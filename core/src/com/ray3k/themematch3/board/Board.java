@@ -0,0 +1,651 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The rules of the match 3 board. Pieces are stored as primitive ids indexed
+ * by cell, where cell = row * columns + column and row 0 is the top of the
+ * board. No scene2d or GL classes are referenced so the rules can be run
+ * without a graphics context. Views are kept up to date through a
+ * {@link BoardListener}.
+ */
+public class Board {
+    public static final byte EMPTY = -1;
+    public static final int MINIMUM_MATCH = 3;
+    public static final int DEFAULT_PIECE_TYPES = 7;
+    private final int columns;
+    private final int rows;
+    private final byte[] pieces;
+    private final MatchFinder matchFinder;
+    private final MoveIndex moveIndex;
+    private final MatchGroups matchGroups;
+    private final boolean[] rowFlags;
+    private final boolean[] columnFlags;
+    private final IntArray dirtyRows;
+    private final IntArray dirtyColumns;
+    private final int[] heights;
+    private final IntArray freeColumns;
+    private final int[] freeColumnIndices;
+    private final Random random;
+    private boolean gameOver;
+    private MatchFinder referenceFinder;
+    private BoardListener listener;
+    private BoardEventBus eventBus;
+    private int level;
+    private int difficulty;
+    private float spawnFrequency;
+    private int spawnCount;
+    private int piecesToNextLevel;
+    
+    public Board(int columns, int rows) {
+        this(columns, rows, DEFAULT_PIECE_TYPES);
+    }
+    
+    public Board(int columns, int rows, int pieceTypes) {
+        this(columns, rows, pieceTypes, new RandomXS128());
+    }
+    
+    /**
+     * @param random The source of every random spawn. Boards given
+     * identically seeded sources produce identical sequences of spawns.
+     */
+    public Board(int columns, int rows, int pieceTypes, Random random) {
+        this.columns = columns;
+        this.random = random;
+        this.rows = rows;
+        pieces = new byte[columns * rows];
+        Arrays.fill(pieces, EMPTY);
+        matchFinder = MatchFinder.create(columns, rows, pieceTypes);
+        moveIndex = new MoveIndex(columns, rows, pieces);
+        matchGroups = new MatchGroups(columns, rows);
+        rowFlags = new boolean[rows];
+        columnFlags = new boolean[columns];
+        dirtyRows = new IntArray(rows);
+        dirtyColumns = new IntArray(columns);
+        
+        heights = new int[columns];
+        freeColumns = new IntArray(columns);
+        freeColumnIndices = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            freeColumnIndices[column] = column;
+            freeColumns.add(column);
+        }
+        
+        level = 0;
+    }
+    
+    public interface BoardListener {
+        public void pieceAdded(int cell, byte piece);
+        public void pieceMoved(int fromCell, int toCell);
+        public void pieceRemoved(int cell);
+        public void scored(int points, int matchSize, MatchShape shape);
+        public void levelIncreased(int level);
+    }
+
+    public BoardListener getListener() {
+        return listener;
+    }
+
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    public BoardEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * @param eventBus Receives the spawn, swap, match, drop, level and game
+     * over events of this board, or null for none.
+     */
+    public void setEventBus(BoardEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCellCount() {
+        return pieces.length;
+    }
+    
+    public int getCell(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return -1;
+        return row * columns + column;
+    }
+    
+    public int getColumn(int cell) {
+        return cell % columns;
+    }
+    
+    public int getRow(int cell) {
+        return cell / columns;
+    }
+    
+    public byte getPiece(int cell) {
+        return pieces[cell];
+    }
+    
+    public boolean isEmpty(int cell) {
+        return pieces[cell] == EMPTY;
+    }
+    
+    private void setPiece(int cell, byte piece) {
+        byte previous = pieces[cell];
+        if (previous == piece) return;
+        
+        matchFinder.set(cell, previous, piece);
+        if (referenceFinder != null) referenceFinder.set(cell, previous, piece);
+        pieces[cell] = piece;
+        moveIndex.cellChanged(cell);
+        
+        if (previous == EMPTY || piece == EMPTY) updateHeight(cell, piece != EMPTY);
+        
+        int row = getRow(cell);
+        if (!rowFlags[row]) {
+            rowFlags[row] = true;
+            dirtyRows.add(row);
+        }
+        
+        int column = getColumn(cell);
+        if (!columnFlags[column]) {
+            columnFlags[column] = true;
+            dirtyColumns.add(column);
+        }
+    }
+    
+    /**
+     * Heights are measured from the bottom of the board to the top of the
+     * highest piece in the column, including any gaps below it.
+     */
+    private void updateHeight(int cell, boolean filled) {
+        int column = getColumn(cell);
+        int height = rows - getRow(cell);
+        int previousHeight = heights[column];
+        
+        if (filled) {
+            if (height > previousHeight) heights[column] = height;
+        } else if (height == previousHeight) {
+            int below = cell + columns;
+            while (below < pieces.length && pieces[below] == EMPTY) {
+                below += columns;
+            }
+            heights[column] = rows - below / columns;
+        }
+        
+        boolean wasFree = previousHeight < rows;
+        boolean free = heights[column] < rows;
+        if (wasFree && !free) {
+            int index = freeColumnIndices[column];
+            int last = freeColumns.pop();
+            if (last != column) {
+                freeColumns.set(index, last);
+                freeColumnIndices[last] = index;
+            }
+            freeColumnIndices[column] = -1;
+        } else if (!wasFree && free) {
+            freeColumnIndices[column] = freeColumns.size;
+            freeColumns.add(column);
+        }
+    }
+    
+    /**
+     * Searches only the rows and columns that changed since the last search.
+     * Every run found by a search is removed, so unchanged lines can not
+     * contain a run and the result is the same as a full search.
+     */
+    private boolean findMatches() {
+        matchFinder.clearMatches();
+        
+        for (int i = 0; i < dirtyRows.size; i++) {
+            int row = dirtyRows.get(i);
+            matchFinder.findRow(row);
+            rowFlags[row] = false;
+        }
+        dirtyRows.clear();
+        
+        for (int i = 0; i < dirtyColumns.size; i++) {
+            int column = dirtyColumns.get(i);
+            matchFinder.findColumn(column);
+            columnFlags[column] = false;
+        }
+        dirtyColumns.clear();
+        
+        boolean returnValue = matchFinder.hasMatches();
+        
+        if (referenceFinder != null) {
+            referenceFinder.find();
+            for (int cell = 0; cell < pieces.length; cell++) {
+                if (referenceFinder.isRowMatch(cell) != matchFinder.isRowMatch(cell) || referenceFinder.isColumnMatch(cell) != matchFinder.isColumnMatch(cell)) {
+                    throw new IllegalStateException("Incremental match differs from full scan at column " + getColumn(cell) + " row " + getRow(cell));
+                }
+            }
+            moveIndex.verify();
+        }
+        
+        return returnValue;
+    }
+    
+    /**
+     * Copies the pieces and level of another board of the same size. Only the
+     * cells that differ are written and no listener events are sent, so
+     * scratch boards can be reset cheaply for searches.
+     */
+    public void set(Board other) {
+        if (other.columns != columns || other.rows != rows) {
+            throw new IllegalArgumentException("Board sizes differ: " + other.columns + "x" + other.rows + " and " + columns + "x" + rows);
+        }
+        
+        for (int cell = 0; cell < pieces.length; cell++) {
+            setPiece(cell, other.pieces[cell]);
+        }
+        
+        gameOver = other.gameOver;
+        level = other.level;
+        difficulty = other.difficulty;
+        spawnFrequency = other.spawnFrequency;
+        spawnCount = other.spawnCount;
+        piecesToNextLevel = other.piecesToNextLevel;
+    }
+    
+    public boolean isDebugMatching() {
+        return referenceFinder != null;
+    }
+    
+    /**
+     * When enabled, every incremental search is checked against a full search
+     * of a second match finder, the move index is checked against a trial of
+     * every swap and an {@link IllegalStateException} is thrown if they
+     * differ.
+     */
+    public void setDebugMatching(boolean debugMatching) {
+        if (debugMatching && referenceFinder == null) {
+            referenceFinder = MatchFinder.create(columns, rows, matchFinder.getPieceTypes());
+            for (int cell = 0; cell < pieces.length; cell++) {
+                referenceFinder.set(cell, EMPTY, pieces[cell]);
+            }
+        } else if (!debugMatching) {
+            referenceFinder = null;
+        }
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    public MatchFinder getMatchFinder() {
+        return matchFinder;
+    }
+    
+    /**
+     * @return The swaps that would make a match, kept up to date as pieces
+     * change.
+     */
+    public MoveIndex getMoveIndex() {
+        return moveIndex;
+    }
+    
+    /**
+     * @return The neighboring cell offset by the given amount or -1 if it is
+     * off the board.
+     */
+    public int getAdjacent(int cell, int columnOffset, int rowOffset) {
+        return getCell(getColumn(cell) + columnOffset, getRow(cell) + rowOffset);
+    }
+    
+    public boolean isAdjacent(int first, int second) {
+        int columnDistance = Math.abs(getColumn(first) - getColumn(second));
+        int rowDistance = Math.abs(getRow(first) - getRow(second));
+        return columnDistance + rowDistance == 1;
+    }
+    
+    public boolean isColumnFree(int column) {
+        return heights[column] < rows;
+    }
+    
+    public int getHeight(int column) {
+        return heights[column];
+    }
+    
+    public int getFreeColumnCount() {
+        return freeColumns.size;
+    }
+    
+    /**
+     * @return The lowest empty cell in the column that a new piece would land
+     * in or -1 if the column is full.
+     */
+    public int getFreeCell(int column) {
+        int height = heights[column];
+        return height < rows ? (rows - 1 - height) * columns + column : -1;
+    }
+    
+    public int randomColumn() {
+        return random.nextInt(columns);
+    }
+    
+    /**
+     * @return A random column that is not full or -1 if the board is full.
+     */
+    public int randomFreeColumn() {
+        if (freeColumns.size == 0) return -1;
+        return freeColumns.get(random.nextInt(freeColumns.size));
+    }
+    
+    public byte randomPiece() {
+        return (byte) random.nextInt(difficulty + 1);
+    }
+    
+    /**
+     * Spawns a random piece in a random column. Spawning into a full column
+     * ends the game.
+     * @return The cell the piece was placed in or -1 if the game is over.
+     */
+    public int spawnRandomPiece() {
+        int column = randomColumn();
+        if (!isColumnFree(column)) {
+            gameOver = true;
+            if (eventBus != null) eventBus.publish(BoardEventType.GAME_OVER, level);
+            return -1;
+        }
+        return addPiece(column, randomPiece());
+    }
+    
+    /**
+     * Spawns a random piece in a random column that is not full.
+     * @return The cell the piece was placed in or -1 if the board is full.
+     */
+    public int spawnRandomPieceSafe() {
+        int column = randomFreeColumn();
+        if (column == -1) return -1;
+        return addPiece(column, randomPiece());
+    }
+    
+    /**
+     * @return The cell the piece was placed in or -1 if the column is full.
+     */
+    public int addPiece(int column, byte piece) {
+        int cell = getFreeCell(column);
+        if (cell != -1) {
+            setPiece(cell, piece);
+            if (listener != null) listener.pieceAdded(cell, piece);
+            if (eventBus != null) eventBus.publish(BoardEventType.SPAWNED, cell, piece, isColumnFree(column) ? 0 : 1);
+        }
+        return cell;
+    }
+    
+    /**
+     * Exchanges the contents of two cells. The first cell must contain a
+     * piece, the second may be empty.
+     * @return false if nothing was swapped.
+     */
+    public boolean swap(int first, int second) {
+        if (first < 0 || second < 0 || first == second || pieces[first] == EMPTY) return false;
+        
+        byte piece = pieces[first];
+        setPiece(first, pieces[second]);
+        setPiece(second, piece);
+        if (eventBus != null) eventBus.publish(BoardEventType.SWAPPED, first, second);
+        return true;
+    }
+    
+    public void remove(int cell) {
+        if (pieces[cell] != EMPTY) {
+            setPiece(cell, EMPTY);
+            if (listener != null) listener.pieceRemoved(cell);
+        }
+    }
+    
+    public void removeAll() {
+        for (int cell = 0; cell < pieces.length; cell++) {
+            remove(cell);
+        }
+    }
+    
+    /**
+     * Removes every piece and starts again from the first level.
+     */
+    public void reset() {
+        removeAll();
+        gameOver = false;
+        level = 0;
+        increaseLevel();
+    }
+    
+    /**
+     * Moves the piece in the cell to the lowest empty cell below it.
+     * @return true if the piece moved.
+     */
+    public boolean drop(int cell) {
+        if (pieces[cell] != EMPTY) {
+            for (int target = getColumn(cell) + columns * (rows - 1); target > cell; target -= columns) {
+                if (pieces[target] == EMPTY) {
+                    setPiece(target, pieces[cell]);
+                    setPiece(cell, EMPTY);
+                    if (listener != null) listener.pieceMoved(cell, target);
+                    if (eventBus != null) eventBus.publish(BoardEventType.DROPPED, cell, target);
+                    return true;
+                }
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Drops every piece, starting at the bottom of the board.
+     * @return true if any piece moved.
+     */
+    public boolean dropAll() {
+        boolean didDrop = false;
+        for (int cell = pieces.length - 1; cell >= 0; cell--) {
+            if (drop(cell)) {
+                didDrop = true;
+            }
+        }
+        return didDrop;
+    }
+    
+    /**
+     * Matches and drops until the board is stable, without the delays the
+     * view waits for between steps.
+     * @return The number of passes that matched or dropped anything.
+     */
+    public int resolve() {
+        return resolve(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Matches and drops until the board is stable or the given number of
+     * passes have been made.
+     * @return The number of passes that matched or dropped anything.
+     */
+    public int resolve(int maxPasses) {
+        int passes = 0;
+        while (passes < maxPasses) {
+            boolean matched = checkForMatch();
+            boolean dropped = dropAll();
+            if (!matched && !dropped) break;
+            passes++;
+        }
+        return passes;
+    }
+    
+    /**
+     * Scores and removes every run of {@link #MINIMUM_MATCH} or more identical
+     * pieces. Runs that share a cell are scored together as one group, so
+     * each piece counts once.
+     * @return true if anything was matched.
+     */
+    public boolean checkForMatch() {
+        if (!findMatches()) return false;
+        
+        int groupCount = matchGroups.group(pieces, matchFinder);
+        for (int group = 0; group < groupCount; group++) {
+            int size = matchGroups.getSize(group);
+            score(size, matchGroups.getShape(group));
+            
+            for (int i = 0; i < size; i++) {
+                remove(matchGroups.getCell(group, i));
+            }
+        }
+        
+        return true;
+    }
+    
+    private void score(int matchSize, MatchShape shape) {
+        int points = getPoints(matchSize, shape);
+        
+        if (listener != null) listener.scored(points, matchSize, shape);
+        if (eventBus != null) eventBus.publish(BoardEventType.MATCHED, points, matchSize, shape.ordinal());
+        
+        piecesToNextLevel -= matchSize;
+        if (piecesToNextLevel <= 0) increaseLevel();
+    }
+    
+    /**
+     * @return The points for a group of the given size, multiplied by its
+     * shape's {@link MatchShape#getScoreMultiplier()}.
+     */
+    public static int getPoints(int matchSize, MatchShape shape) {
+        int points;
+        switch (matchSize) {
+            case 3:
+                points = 1;
+                break;
+            case 4:
+                points = 5;
+                break;
+            case 5:
+                points = 10;
+                break;
+            case 6:
+                points = 25;
+                break;
+            default:
+                points = 50;
+                break;
+        }
+        return points * shape.getScoreMultiplier();
+    }
+    
+    public void increaseLevel() {
+        level++;
+        
+        switch (level) {
+            case 1:
+                difficulty = 3;
+                spawnFrequency = 5.0f;
+                spawnCount = 3;
+                piecesToNextLevel = 15;
+                break;
+            case 2:
+                difficulty = 3;
+                spawnFrequency = 4.0f;
+                spawnCount = 4;
+                piecesToNextLevel = 20;
+                break;
+            case 3:
+                difficulty = 4;
+                spawnFrequency = 4.0f;
+                spawnCount = 4;
+                piecesToNextLevel = 25;
+                break;
+            case 4:
+                difficulty = 4;
+                spawnFrequency = 4.0f;
+                spawnCount = 5;
+                piecesToNextLevel = 30;
+                break;
+            case 5:
+                difficulty = 4;
+                spawnFrequency = 3.5f;
+                spawnCount = 5;
+                piecesToNextLevel = 35;
+                break;
+            case 6:
+                difficulty = 5;
+                spawnFrequency = 3.5f;
+                spawnCount = 5;
+                piecesToNextLevel = 40;
+                break;
+            case 7:
+                difficulty = 5;
+                spawnFrequency = 3.5f;
+                spawnCount = 6;
+                piecesToNextLevel = 45;
+                break;
+            case 8:
+                difficulty = 6;
+                spawnFrequency = 3.5f;
+                spawnCount = 6;
+                piecesToNextLevel = 50;
+                break;
+            case 9:
+                difficulty = 6;
+                spawnFrequency = 3.0f;
+                spawnCount = 6;
+                piecesToNextLevel = 60;
+                break;
+        }
+        
+        if (listener != null) listener.levelIncreased(level);
+        if (eventBus != null) eventBus.publish(BoardEventType.LEVEL_UP, level);
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public float getSpawnFrequency() {
+        return spawnFrequency;
+    }
+
+    public int getSpawnCount() {
+        return spawnCount;
+    }
+
+    public int getPiecesToNextLevel() {
+        return piecesToNextLevel;
+    }
+}
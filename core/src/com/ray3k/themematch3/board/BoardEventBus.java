@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Collects the events published during a tick and hands them to every
+ * subscriber at once when {@link #flush()} is called, normally once per
+ * frame. Subscribers can then coalesce work, such as playing a sound once or
+ * updating a label once, no matter how many events a cascade produced.
+ * Events are stored in primitive arrays so publishing does not allocate.
+ */
+public class BoardEventBus {
+    private final IntArray types;
+    private final IntArray firstArguments;
+    private final IntArray secondArguments;
+    private final IntArray thirdArguments;
+    private final int[] counts;
+    private final Array<Subscriber> subscribers;
+    
+    public BoardEventBus() {
+        this(64);
+    }
+    
+    /**
+     * @param capacity The number of events per flush the buffer can hold
+     * before it has to grow.
+     */
+    public BoardEventBus(int capacity) {
+        types = new IntArray(capacity);
+        firstArguments = new IntArray(capacity);
+        secondArguments = new IntArray(capacity);
+        thirdArguments = new IntArray(capacity);
+        counts = new int[BoardEventType.VALUES.length];
+        subscribers = new Array<Subscriber>();
+    }
+    
+    public interface Subscriber {
+        /**
+         * Called once per flush with every event published since the last
+         * flush. The events are cleared when all subscribers have returned.
+         */
+        public void drain(BoardEventBus events);
+    }
+    
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+    
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.removeValue(subscriber, true);
+    }
+    
+    public void unsubscribeAll() {
+        subscribers.clear();
+    }
+    
+    public void publish(BoardEventType type, int first, int second, int third) {
+        types.add(type.ordinal());
+        firstArguments.add(first);
+        secondArguments.add(second);
+        thirdArguments.add(third);
+        counts[type.ordinal()]++;
+    }
+    
+    public void publish(BoardEventType type, int first, int second) {
+        publish(type, first, second, 0);
+    }
+    
+    public void publish(BoardEventType type, int first) {
+        publish(type, first, 0, 0);
+    }
+    
+    /**
+     * Hands the buffered events to each subscriber in the order they
+     * subscribed and then clears the buffer. Nothing is sent if no events
+     * were published.
+     */
+    public void flush() {
+        if (types.size == 0) return;
+        
+        for (int i = 0; i < subscribers.size; i++) {
+            subscribers.get(i).drain(this);
+        }
+        clear();
+    }
+    
+    public void clear() {
+        types.clear();
+        firstArguments.clear();
+        secondArguments.clear();
+        thirdArguments.clear();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+    
+    public int size() {
+        return types.size;
+    }
+    
+    public BoardEventType getType(int index) {
+        return BoardEventType.VALUES[types.get(index)];
+    }
+    
+    public int getFirst(int index) {
+        return firstArguments.get(index);
+    }
+    
+    public int getSecond(int index) {
+        return secondArguments.get(index);
+    }
+    
+    public int getThird(int index) {
+        return thirdArguments.get(index);
+    }
+    
+    /**
+     * @return The number of events of the type waiting to be drained.
+     */
+    public int count(BoardEventType type) {
+        return counts[type.ordinal()];
+    }
+    
+    /**
+     * @return The index of the last event of the type or -1 if there is none.
+     */
+    public int findLast(BoardEventType type) {
+        int ordinal = type.ordinal();
+        for (int i = types.size - 1; i >= 0; i--) {
+            if (types.get(i) == ordinal) return i;
+        }
+        return -1;
+    }
+}
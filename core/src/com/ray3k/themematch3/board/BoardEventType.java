@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+/**
+ * The kinds of event a {@link Board} publishes to a {@link BoardEventBus}.
+ * Each event carries up to three int arguments, described per type.
+ */
+public enum BoardEventType {
+    /**
+     * A piece was added. Arguments: cell, piece, 1 if the column is now full
+     * or 0.
+     */
+    SPAWNED,
+    /**
+     * Two cells were swapped. Arguments: first cell, second cell.
+     */
+    SWAPPED,
+    /**
+     * A group of runs was scored and removed. Arguments: points, number of
+     * pieces, {@link MatchShape} ordinal.
+     */
+    MATCHED,
+    /**
+     * A piece fell. Arguments: cell it left, cell it landed in.
+     */
+    DROPPED,
+    /**
+     * A new level was reached. Arguments: level.
+     */
+    LEVEL_UP,
+    /**
+     * A piece could not be placed and the game is lost. Arguments: level.
+     */
+    GAME_OVER;
+    
+    public static final BoardEventType[] VALUES = values();
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.ray3k.themematch3.board.BoardEventBus.Subscriber;
+
+/**
+ * Counts the events published to a bus, in total and per flush.
+ */
+public class BoardTelemetry implements Subscriber {
+    private final long[] totals;
+    private final int[] peaks;
+    private long flushes;
+    private int peakEvents;
+    private long points;
+    
+    public BoardTelemetry() {
+        totals = new long[BoardEventType.VALUES.length];
+        peaks = new int[BoardEventType.VALUES.length];
+    }
+
+    @Override
+    public void drain(BoardEventBus events) {
+        flushes++;
+        peakEvents = Math.max(peakEvents, events.size());
+        
+        for (int i = 0; i < totals.length; i++) {
+            int count = events.count(BoardEventType.VALUES[i]);
+            totals[i] += count;
+            peaks[i] = Math.max(peaks[i], count);
+        }
+        
+        for (int i = 0; i < events.size(); i++) {
+            if (events.getType(i) == BoardEventType.MATCHED) points += events.getFirst(i);
+        }
+    }
+    
+    public long getTotal(BoardEventType type) {
+        return totals[type.ordinal()];
+    }
+    
+    /**
+     * @return The most events of the type drained in a single flush.
+     */
+    public int getPeak(BoardEventType type) {
+        return peaks[type.ordinal()];
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public int getPeakEvents() {
+        return peakEvents;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+    
+    public void reset() {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = 0;
+            peaks[i] = 0;
+        }
+        flushes = 0;
+        peakEvents = 0;
+        points = 0;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(flushes).append(" flushes, peak ").append(peakEvents).append(" events, ").append(points).append(" points");
+        for (int i = 0; i < totals.length; i++) {
+            builder.append(", ").append(BoardEventType.VALUES[i]).append(" ").append(totals[i]).append(" (peak ").append(peaks[i]).append(")");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Two way constant time lookup between the cells of a {@link Board} and the
+ * objects that represent them, such as the actors of a view.
+ */
+public class CellIndex<T> {
+    private final int columns;
+    private final int rows;
+    private final Object[] values;
+    private final ObjectIntMap<T> cells;
+    
+    public CellIndex(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        values = new Object[columns * rows];
+        cells = new ObjectIntMap<T>(values.length);
+    }
+    
+    public void put(int cell, T value) {
+        remove(cell);
+        int previous = cells.remove(value, -1);
+        if (previous != -1) values[previous] = null;
+        
+        values[cell] = value;
+        cells.put(value, cell);
+    }
+    
+    public void put(int column, int row, T value) {
+        put(row * columns + column, value);
+    }
+    
+    public T remove(int cell) {
+        T value = get(cell);
+        if (value != null) {
+            values[cell] = null;
+            cells.remove(value, -1);
+        }
+        return value;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public T get(int cell) {
+        return (T) values[cell];
+    }
+    
+    /**
+     * @return The value at the coordinates or null if they are off the grid.
+     */
+    public T get(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return null;
+        return get(row * columns + column);
+    }
+    
+    /**
+     * @return The cell of the value or -1 if it is not indexed.
+     */
+    public int getCell(T value) {
+        return cells.get(value, -1);
+    }
+    
+    public int getColumn(T value) {
+        int cell = getCell(value);
+        return cell == -1 ? -1 : cell % columns;
+    }
+    
+    public int getRow(T value) {
+        int cell = getCell(value);
+        return cell == -1 ? -1 : cell / columns;
+    }
+    
+    public boolean contains(T value) {
+        return cells.containsKey(value);
+    }
+    
+    public void clear() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = null;
+        }
+        cells.clear();
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+/**
+ * Finds runs of {@link Board#MINIMUM_MATCH} or more identical pieces using
+ * one bitset per piece type. Implementations keep their bitsets up to date
+ * through {@link #set(int, byte, byte)} and do not allocate while searching.
+ */
+public abstract class MatchFinder {
+    protected final int columns;
+    protected final int rows;
+    protected final int pieceTypes;
+    
+    public MatchFinder(int columns, int rows, int pieceTypes) {
+        this.columns = columns;
+        this.rows = rows;
+        this.pieceTypes = pieceTypes;
+    }
+    
+    /**
+     * @return A {@link BitboardMatchFinder} if the board fits in 64 cells,
+     * otherwise a {@link MultiWordMatchFinder}.
+     */
+    public static MatchFinder create(int columns, int rows, int pieceTypes) {
+        if (columns * rows <= 64) {
+            return new BitboardMatchFinder(columns, rows, pieceTypes);
+        } else {
+            return new MultiWordMatchFinder(columns, rows, pieceTypes);
+        }
+    }
+    
+    /**
+     * Updates the bitsets for a cell that changed from one piece to another.
+     * Either may be {@link Board#EMPTY}.
+     */
+    public abstract void set(int cell, byte previous, byte piece);
+    
+    public abstract void clear();
+    
+    /**
+     * Searches the whole board. The results are available through
+     * {@link #nextRowMatch(int)} and {@link #nextColumnMatch(int)} until the
+     * next search.
+     * @return true if any run was found.
+     */
+    public abstract boolean find();
+    
+    /**
+     * Clears the results of the last search so that individual lines can be
+     * searched with {@link #findRow(int)} and {@link #findColumn(int)}.
+     */
+    public abstract void clearMatches();
+    
+    /**
+     * Adds the horizontal runs of a single row to the results.
+     */
+    public abstract void findRow(int row);
+    
+    /**
+     * Adds the vertical runs of a single column to the results.
+     */
+    public abstract void findColumn(int column);
+    
+    public abstract boolean hasMatches();
+    
+    /**
+     * @return The first cell at or after the given cell that is part of a
+     * horizontal run, or -1 if there are none.
+     */
+    public abstract int nextRowMatch(int cell);
+    
+    /**
+     * @return The first cell at or after the given cell that is part of a
+     * vertical run, or -1 if there are none.
+     */
+    public abstract int nextColumnMatch(int cell);
+    
+    public abstract boolean isRowMatch(int cell);
+    
+    public abstract boolean isColumnMatch(int cell);
+    
+    public abstract int getRowMatchCount();
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getPieceTypes() {
+        return pieceTypes;
+    }
+}
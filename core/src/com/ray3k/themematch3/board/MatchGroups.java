@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import java.util.Arrays;
+
+/**
+ * Joins the runs found by a {@link MatchFinder} into connected groups. Runs
+ * that share a cell belong to the same group, so every matched cell is in
+ * exactly one group. Runs are joined with a union-find over the cells and all
+ * arrays are allocated once, sized for the whole board. Groups are numbered in
+ * the order of their first cell.
+ */
+public class MatchGroups {
+    private final int columns;
+    private final int rows;
+    private final int[] parent;
+    private final boolean[] matched;
+    private final int[] cells;
+    private int cellCount;
+    private final int[] groupOfRoot;
+    private int groupCount;
+    private final int[] sizes;
+    private final int[] rowRuns;
+    private final int[] columnRuns;
+    private final int[] crossings;
+    private final MatchShape[] shapes;
+    private final int[] starts;
+    private final int[] groupCells;
+    
+    public MatchGroups(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        int cellTotal = columns * rows;
+        parent = new int[cellTotal];
+        matched = new boolean[cellTotal];
+        cells = new int[cellTotal];
+        groupOfRoot = new int[cellTotal];
+        Arrays.fill(groupOfRoot, -1);
+        sizes = new int[cellTotal];
+        rowRuns = new int[cellTotal];
+        columnRuns = new int[cellTotal];
+        crossings = new int[cellTotal];
+        shapes = new MatchShape[cellTotal];
+        starts = new int[cellTotal + 1];
+        groupCells = new int[cellTotal];
+    }
+    
+    /**
+     * Groups the runs found by the most recent search of the match finder.
+     * @return The number of groups.
+     */
+    public int group(byte[] pieces, MatchFinder matchFinder) {
+        clear();
+        
+        //collect matched cells in cell order
+        int rowCell = matchFinder.nextRowMatch(0);
+        int columnCell = matchFinder.nextColumnMatch(0);
+        while (rowCell != -1 || columnCell != -1) {
+            int cell = columnCell == -1 || (rowCell != -1 && rowCell < columnCell) ? rowCell : columnCell;
+            cells[cellCount++] = cell;
+            parent[cell] = cell;
+            matched[cell] = true;
+            if (cell == rowCell) rowCell = matchFinder.nextRowMatch(cell + 1);
+            if (cell == columnCell) columnCell = matchFinder.nextColumnMatch(cell + 1);
+        }
+        
+        //join each cell to the next cell of its runs
+        for (int i = 0; i < cellCount; i++) {
+            int cell = cells[i];
+            if (isSameRowRun(cell, cell + 1, pieces, matchFinder)) union(cell, cell + 1);
+            if (isSameColumnRun(cell, cell + columns, pieces, matchFinder)) union(cell, cell + columns);
+        }
+        
+        //number the groups and count their cells and runs
+        for (int i = 0; i < cellCount; i++) {
+            int cell = cells[i];
+            int root = find(cell);
+            int group = groupOfRoot[root];
+            if (group == -1) {
+                group = groupCount++;
+                groupOfRoot[root] = group;
+                sizes[group] = 0;
+                rowRuns[group] = 0;
+                columnRuns[group] = 0;
+                crossings[group] = -1;
+            }
+            
+            sizes[group]++;
+            boolean rowMatch = matchFinder.isRowMatch(cell);
+            boolean columnMatch = matchFinder.isColumnMatch(cell);
+            if (rowMatch && !isSameRowRun(cell - 1, cell, pieces, matchFinder)) rowRuns[group]++;
+            if (columnMatch && !isSameColumnRun(cell - columns, cell, pieces, matchFinder)) columnRuns[group]++;
+            if (rowMatch && columnMatch) crossings[group] = cell;
+        }
+        
+        //list the cells of each group together
+        starts[0] = 0;
+        for (int group = 0; group < groupCount; group++) {
+            starts[group + 1] = starts[group] + sizes[group];
+            shapes[group] = findShape(group, pieces, matchFinder);
+        }
+        for (int i = 0; i < cellCount; i++) {
+            int cell = cells[i];
+            int group = groupOfRoot[find(cell)];
+            groupCells[starts[group]++] = cell;
+        }
+        for (int group = groupCount; group > 0; group--) {
+            starts[group] = starts[group - 1];
+        }
+        starts[0] = 0;
+        
+        return groupCount;
+    }
+    
+    private void clear() {
+        for (int i = 0; i < cellCount; i++) {
+            int cell = cells[i];
+            matched[cell] = false;
+            groupOfRoot[cell] = -1;
+        }
+        cellCount = 0;
+        groupCount = 0;
+    }
+    
+    /**
+     * @return true if both cells are in the same row run. The first cell may
+     * be off the left edge of the row.
+     */
+    private boolean isSameRowRun(int cell, int next, byte[] pieces, MatchFinder matchFinder) {
+        return cell >= 0 && next % columns != 0 && next < pieces.length && matched[cell] && matched[next] && matchFinder.isRowMatch(cell) && matchFinder.isRowMatch(next) && pieces[cell] == pieces[next];
+    }
+    
+    /**
+     * @return true if both cells are in the same column run. The first cell
+     * may be above the board.
+     */
+    private boolean isSameColumnRun(int cell, int next, byte[] pieces, MatchFinder matchFinder) {
+        return cell >= 0 && next < pieces.length && matched[cell] && matched[next] && matchFinder.isColumnMatch(cell) && matchFinder.isColumnMatch(next) && pieces[cell] == pieces[next];
+    }
+    
+    private MatchShape findShape(int group, byte[] pieces, MatchFinder matchFinder) {
+        int runs = rowRuns[group] + columnRuns[group];
+        if (runs == 1) return MatchShape.LINE;
+        if (runs > 2 || crossings[group] == -1) return MatchShape.COMPLEX;
+        
+        int cell = crossings[group];
+        boolean rowEnd = !isSameRowRun(cell - 1, cell, pieces, matchFinder) || !isSameRowRun(cell, cell + 1, pieces, matchFinder);
+        boolean columnEnd = !isSameColumnRun(cell - columns, cell, pieces, matchFinder) || !isSameColumnRun(cell, cell + columns, pieces, matchFinder);
+        if (rowEnd && columnEnd) return MatchShape.L;
+        if (rowEnd || columnEnd) return MatchShape.T;
+        return MatchShape.CROSS;
+    }
+    
+    private int find(int cell) {
+        while (parent[cell] != cell) {
+            parent[cell] = parent[parent[cell]];
+            cell = parent[cell];
+        }
+        return cell;
+    }
+    
+    private void union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot < secondRoot) {
+            parent[secondRoot] = firstRoot;
+        } else if (secondRoot < firstRoot) {
+            parent[firstRoot] = secondRoot;
+        }
+    }
+    
+    public int getGroupCount() {
+        return groupCount;
+    }
+    
+    /**
+     * @return The number of distinct cells in the group.
+     */
+    public int getSize(int group) {
+        return sizes[group];
+    }
+    
+    public MatchShape getShape(int group) {
+        return shapes[group];
+    }
+    
+    /**
+     * @return The cell at the given index of the group, in cell order.
+     */
+    public int getCell(int group, int index) {
+        return groupCells[starts[group] + index];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
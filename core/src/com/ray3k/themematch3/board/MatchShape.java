@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+/**
+ * The shape of a group of connected runs. Groups that bend or cross are
+ * harder to set up than a straight line, so they score more.
+ */
+public enum MatchShape {
+    /**
+     * A single row or column run.
+     */
+    LINE(1),
+    /**
+     * A row and a column run that meet at an end of each.
+     */
+    L(2),
+    /**
+     * A row and a column run where one ends in the middle of the other.
+     */
+    T(2),
+    /**
+     * A row and a column run that cross in the middle of both.
+     */
+    CROSS(3),
+    /**
+     * Three or more runs.
+     */
+    COMPLEX(3);
+    
+    public static final MatchShape[] VALUES = values();
+    private final int scoreMultiplier;
+    
+    private MatchShape(int scoreMultiplier) {
+        this.scoreMultiplier = scoreMultiplier;
+    }
+    
+    /**
+     * @return The factor the points for a group of this shape are multiplied
+     * by.
+     */
+    public int getScoreMultiplier() {
+        return scoreMultiplier;
+    }
+}
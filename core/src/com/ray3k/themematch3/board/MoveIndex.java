@@ -0,0 +1,227 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+
+/**
+ * Keeps the set of swaps that would immediately make a match. A move is the
+ * swap of two adjacent pieces and is identified by cell * 2 for the swap with
+ * the cell to the right and cell * 2 + 1 for the swap with the cell below.
+ * Swaps with empty cells are not moves because their result depends on the
+ * drop that follows.
+ * <p>
+ * A swap can only make runs through its two cells, so its validity depends on
+ * the cells within two of either end along a row or column. Changed cells are
+ * queued and only the moves near them are rechecked the next time the index
+ * is queried, so queries cost O(1) while the board is unchanged.
+ */
+public class MoveIndex {
+    private final int columns;
+    private final int rows;
+    private final byte[] pieces;
+    private final IntArray moves;
+    private final int[] moveIndices;
+    private final boolean[] changedFlags;
+    private final IntArray changedCells;
+    private final boolean[] checkedFlags;
+    private final IntArray checkedMoves;
+    
+    MoveIndex(int columns, int rows, byte[] pieces) {
+        this.columns = columns;
+        this.rows = rows;
+        this.pieces = pieces;
+        moves = new IntArray(pieces.length * 2);
+        moveIndices = new int[pieces.length * 2];
+        Arrays.fill(moveIndices, -1);
+        changedFlags = new boolean[pieces.length];
+        changedCells = new IntArray(pieces.length);
+        checkedFlags = new boolean[pieces.length * 2];
+        checkedMoves = new IntArray(pieces.length * 2);
+    }
+    
+    void cellChanged(int cell) {
+        if (!changedFlags[cell]) {
+            changedFlags[cell] = true;
+            changedCells.add(cell);
+        }
+    }
+    
+    /**
+     * Rechecks every move that a queued cell change could have affected.
+     */
+    private void update() {
+        if (changedCells.size == 0) return;
+        
+        for (int i = 0; i < changedCells.size; i++) {
+            int cell = changedCells.get(i);
+            changedFlags[cell] = false;
+            int column = cell % columns;
+            int row = cell / columns;
+            
+            for (int offset = -2; offset <= 2; offset++) {
+                queueMovesOf(column + offset, row);
+                if (offset != 0) queueMovesOf(column, row + offset);
+            }
+        }
+        changedCells.clear();
+        
+        for (int i = 0; i < checkedMoves.size; i++) {
+            int move = checkedMoves.get(i);
+            checkedFlags[move] = false;
+            setMove(move, isMatchingSwap(getFrom(move), getTo(move)));
+        }
+        checkedMoves.clear();
+    }
+    
+    /**
+     * Queues the four moves that include the given cell.
+     */
+    private void queueMovesOf(int column, int row) {
+        if (column < 0 || column >= columns || row < 0 || row >= rows) return;
+        
+        int cell = row * columns + column;
+        queueMove(cell * 2, column + 1 < columns);
+        queueMove(cell * 2 + 1, row + 1 < rows);
+        if (column > 0) queueMove((cell - 1) * 2, true);
+        if (row > 0) queueMove((cell - columns) * 2 + 1, true);
+    }
+    
+    private void queueMove(int move, boolean onBoard) {
+        if (onBoard && !checkedFlags[move]) {
+            checkedFlags[move] = true;
+            checkedMoves.add(move);
+        }
+    }
+    
+    private void setMove(int move, boolean valid) {
+        int index = moveIndices[move];
+        if (valid && index == -1) {
+            moveIndices[move] = moves.size;
+            moves.add(move);
+        } else if (!valid && index != -1) {
+            int last = moves.pop();
+            if (last != move) {
+                moves.set(index, last);
+                moveIndices[last] = index;
+            }
+            moveIndices[move] = -1;
+        }
+    }
+    
+    /**
+     * Tests a swap without making it.
+     * @return true if either piece would complete a run of
+     * {@link Board#MINIMUM_MATCH} or more in its new cell.
+     */
+    public boolean isMatchingSwap(int first, int second) {
+        byte firstPiece = pieces[first];
+        byte secondPiece = pieces[second];
+        if (firstPiece == Board.EMPTY || secondPiece == Board.EMPTY || firstPiece == secondPiece) return false;
+        
+        return makesRun(second, firstPiece, first) || makesRun(first, secondPiece, second);
+    }
+    
+    /**
+     * @param excluded The cell the piece came from, which no longer holds it.
+     */
+    private boolean makesRun(int cell, byte piece, int excluded) {
+        int horizontal = 1 + countRun(cell, piece, excluded, 1, 0) + countRun(cell, piece, excluded, -1, 0);
+        if (horizontal >= Board.MINIMUM_MATCH) return true;
+        
+        int vertical = 1 + countRun(cell, piece, excluded, 0, 1) + countRun(cell, piece, excluded, 0, -1);
+        return vertical >= Board.MINIMUM_MATCH;
+    }
+    
+    private int countRun(int cell, byte piece, int excluded, int columnStep, int rowStep) {
+        int column = cell % columns + columnStep;
+        int row = cell / columns + rowStep;
+        int count = 0;
+        while (count < Board.MINIMUM_MATCH - 1 && column >= 0 && column < columns && row >= 0 && row < rows) {
+            int next = row * columns + column;
+            if (next == excluded || pieces[next] != piece) break;
+            count++;
+            column += columnStep;
+            row += rowStep;
+        }
+        return count;
+    }
+    
+    public boolean hasMoves() {
+        update();
+        return moves.size > 0;
+    }
+    
+    public int getMoveCount() {
+        update();
+        return moves.size;
+    }
+    
+    /**
+     * @return The move at the given index, in no particular order.
+     */
+    public int getMove(int index) {
+        update();
+        return moves.get(index);
+    }
+    
+    /**
+     * @return Any available move or -1 if there are none.
+     */
+    public int getHint() {
+        update();
+        return moves.size > 0 ? moves.get(0) : -1;
+    }
+    
+    public int getFrom(int move) {
+        return move / 2;
+    }
+    
+    public int getTo(int move) {
+        return move % 2 == 0 ? move / 2 + 1 : move / 2 + columns;
+    }
+    
+    /**
+     * Tries every swap on the board and compares the results with the index.
+     * @throws IllegalStateException if they differ.
+     */
+    public void verify() {
+        update();
+        for (int cell = 0; cell < pieces.length; cell++) {
+            int column = cell % columns;
+            int row = cell / columns;
+            if (column + 1 < columns) verifyMove(cell * 2);
+            if (row + 1 < rows) verifyMove(cell * 2 + 1);
+        }
+    }
+    
+    private void verifyMove(int move) {
+        boolean expected = isMatchingSwap(getFrom(move), getTo(move));
+        if (expected != (moveIndices[move] != -1)) {
+            throw new IllegalStateException("Move index differs from a full search at cell " + getFrom(move) + (move % 2 == 0 ? " right" : " down"));
+        }
+    }
+}
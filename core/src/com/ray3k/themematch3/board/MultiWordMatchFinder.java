@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+/**
+ * Match finder for boards larger than 64 cells. Each piece type is a bitset
+ * spread over several longs and shifts carry bits between the words.
+ */
+public class MultiWordMatchFinder extends MatchFinder {
+    private final int words;
+    private final long[][] boards;
+    private final byte[] pieces;
+    private final long[] rowStartMask;
+    private final long[] rowMask;
+    private final long[] columnMask;
+    private final long[] shifted;
+    private final long[] starts;
+    
+    public MultiWordMatchFinder(int columns, int rows, int pieceTypes) {
+        super(columns, rows, pieceTypes);
+        words = (columns * rows + 63) / 64;
+        boards = new long[pieceTypes][words];
+        pieces = new byte[columns * rows];
+        fill(pieces, Board.EMPTY);
+        rowStartMask = new long[words];
+        rowMask = new long[words];
+        columnMask = new long[words];
+        shifted = new long[words];
+        starts = new long[words];
+        
+        //cells that can start a horizontal run without wrapping to the next row
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column <= columns - Board.MINIMUM_MATCH; column++) {
+                int cell = row * columns + column;
+                rowStartMask[cell >>> 6] |= 1L << cell;
+            }
+        }
+    }
+
+    @Override
+    public void set(int cell, byte previous, byte piece) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        if (previous != Board.EMPTY) boards[previous][word] &= ~bit;
+        if (piece != Board.EMPTY) boards[piece][word] |= bit;
+        pieces[cell] = piece;
+    }
+
+    @Override
+    public void clear() {
+        for (long[] board : boards) {
+            fill(board, 0);
+        }
+        fill(pieces, Board.EMPTY);
+        fill(rowMask, 0);
+        fill(columnMask, 0);
+    }
+
+    @Override
+    public boolean find() {
+        clearMatches();
+        
+        for (long[] board : boards) {
+            //horizontal
+            System.arraycopy(board, 0, starts, 0, words);
+            shiftRight(board, 1, shifted);
+            and(starts, shifted);
+            shiftRight(board, 2, shifted);
+            and(starts, shifted);
+            and(starts, rowStartMask);
+            or(rowMask, starts);
+            shiftLeft(starts, 1, shifted);
+            or(rowMask, shifted);
+            shiftLeft(starts, 2, shifted);
+            or(rowMask, shifted);
+            
+            //vertical
+            System.arraycopy(board, 0, starts, 0, words);
+            shiftRight(board, columns, shifted);
+            and(starts, shifted);
+            shiftRight(board, columns * 2, shifted);
+            and(starts, shifted);
+            or(columnMask, starts);
+            shiftLeft(starts, columns, shifted);
+            or(columnMask, shifted);
+            shiftLeft(starts, columns * 2, shifted);
+            or(columnMask, shifted);
+        }
+        
+        return hasMatches();
+    }
+
+    @Override
+    public void clearMatches() {
+        fill(rowMask, 0);
+        fill(columnMask, 0);
+    }
+
+    @Override
+    public void findRow(int row) {
+        findLine(row * columns, 1, columns, rowMask);
+    }
+
+    @Override
+    public void findColumn(int column) {
+        findLine(column, columns, rows, columnMask);
+    }
+    
+    private void findLine(int firstCell, int stride, int length, long[] mask) {
+        int start = 0;
+        for (int i = 1; i <= length; i++) {
+            byte startPiece = pieces[firstCell + start * stride];
+            if (i == length || pieces[firstCell + i * stride] != startPiece) {
+                if (startPiece != Board.EMPTY && i - start >= Board.MINIMUM_MATCH) {
+                    for (int j = start; j < i; j++) {
+                        int cell = firstCell + j * stride;
+                        mask[cell >>> 6] |= 1L << cell;
+                    }
+                }
+                start = i;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasMatches() {
+        for (int i = 0; i < words; i++) {
+            if ((rowMask[i] | columnMask[i]) != 0) return true;
+        }
+        return false;
+    }
+    
+    private void shiftRight(long[] source, int amount, long[] destination) {
+        int wordShift = amount >>> 6;
+        int bitShift = amount & 63;
+        for (int i = 0; i < words; i++) {
+            int index = i + wordShift;
+            long value = index < words ? source[index] >>> bitShift : 0;
+            if (bitShift != 0 && index + 1 < words) {
+                value |= source[index + 1] << (64 - bitShift);
+            }
+            destination[i] = value;
+        }
+    }
+    
+    private void shiftLeft(long[] source, int amount, long[] destination) {
+        int wordShift = amount >>> 6;
+        int bitShift = amount & 63;
+        for (int i = words - 1; i >= 0; i--) {
+            int index = i - wordShift;
+            long value = index >= 0 ? source[index] << bitShift : 0;
+            if (bitShift != 0 && index - 1 >= 0) {
+                value |= source[index - 1] >>> (64 - bitShift);
+            }
+            destination[i] = value;
+        }
+    }
+    
+    private void and(long[] destination, long[] mask) {
+        for (int i = 0; i < words; i++) {
+            destination[i] &= mask[i];
+        }
+    }
+    
+    private void or(long[] destination, long[] mask) {
+        for (int i = 0; i < words; i++) {
+            destination[i] |= mask[i];
+        }
+    }
+    
+    private static void fill(long[] array, long value) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = value;
+        }
+    }
+    
+    private static void fill(byte[] array, byte value) {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = value;
+        }
+    }
+
+    @Override
+    public int nextRowMatch(int cell) {
+        return next(rowMask, cell);
+    }
+
+    @Override
+    public int nextColumnMatch(int cell) {
+        return next(columnMask, cell);
+    }
+    
+    private int next(long[] mask, int cell) {
+        int word = cell >>> 6;
+        if (word >= words) return -1;
+        
+        long value = mask[word] & (-1L << cell);
+        while (true) {
+            if (value != 0) {
+                int returnValue = word * 64 + Long.numberOfTrailingZeros(value);
+                return returnValue < columns * rows ? returnValue : -1;
+            }
+            if (++word == words) return -1;
+            value = mask[word];
+        }
+    }
+
+    @Override
+    public boolean isRowMatch(int cell) {
+        return (rowMask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public boolean isColumnMatch(int cell) {
+        return (columnMask[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public int getRowMatchCount() {
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            count += Long.bitCount(rowMask[i]);
+        }
+        return count;
+    }
+}
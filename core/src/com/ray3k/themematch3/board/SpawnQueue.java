@@ -0,0 +1,223 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.board;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pool.Poolable;
+
+/**
+ * Schedules spawns in waves. Each task has an absolute due time on the
+ * queue's own clock, which only advances in {@link #update(float)}. Tasks are
+ * pooled so scheduling does not allocate, and a whole wave can be paused,
+ * resumed or cancelled without touching anything else. The clock is kept
+ * in double precision, so small steps still add up after days of play.
+ */
+public class SpawnQueue {
+    private final Array<SpawnTask> tasks;
+    private final Array<SpawnTask> pausedTasks;
+    private final Pool<SpawnTask> taskPool;
+    private final Spawner spawner;
+    private double time;
+    private boolean paused;
+    private int nextWave;
+    
+    public SpawnQueue(Spawner spawner) {
+        this.spawner = spawner;
+        tasks = new Array<SpawnTask>();
+        pausedTasks = new Array<SpawnTask>();
+        taskPool = new Pool<SpawnTask>() {
+            @Override
+            protected SpawnTask newObject() {
+                return new SpawnTask();
+            }
+        };
+    }
+    
+    public interface Spawner {
+        /**
+         * Called when a spawn is due.
+         * @param safe false for a spawn that may end the game when its column
+         * is full.
+         */
+        public void spawn(int wave, boolean safe);
+    }
+    
+    public static class SpawnTask implements Poolable {
+        private int wave;
+        private double dueTime;
+        private boolean safe;
+
+        @Override
+        public void reset() {
+            wave = 0;
+            dueTime = 0;
+            safe = false;
+        }
+
+        public int getWave() {
+            return wave;
+        }
+
+        public double getDueTime() {
+            return dueTime;
+        }
+
+        public boolean isSafe() {
+            return safe;
+        }
+    }
+    
+    /**
+     * @return The id of a new wave to schedule spawns in.
+     */
+    public int startWave() {
+        return nextWave++;
+    }
+    
+    /**
+     * Schedules a spawn at the given delay from now.
+     */
+    public void schedule(int wave, float delay, boolean safe) {
+        SpawnTask task = taskPool.obtain();
+        task.wave = wave;
+        task.dueTime = time + delay;
+        task.safe = safe;
+        insert(task);
+    }
+    
+    /**
+     * Keeps tasks ordered by descending due time so the next task is last.
+     * Tasks due at the same time run in the order they were scheduled.
+     */
+    private void insert(SpawnTask task) {
+        int index = tasks.size;
+        while (index > 0 && tasks.get(index - 1).dueTime <= task.dueTime) {
+            index--;
+        }
+        tasks.insert(index, task);
+    }
+    
+    /**
+     * Advances the clock and runs every task that is due. The spawner may
+     * schedule or cancel tasks while it runs.
+     */
+    public void update(float delta) {
+        if (paused) return;
+        time += delta;
+        
+        while (tasks.size > 0 && tasks.peek().dueTime <= time) {
+            SpawnTask task = tasks.pop();
+            int wave = task.wave;
+            boolean safe = task.safe;
+            taskPool.free(task);
+            spawner.spawn(wave, safe);
+        }
+    }
+    
+    /**
+     * Stops the clock for every wave.
+     */
+    public void pause() {
+        paused = true;
+    }
+    
+    public void resume() {
+        paused = false;
+    }
+    
+    public boolean isPaused() {
+        return paused;
+    }
+    
+    /**
+     * Holds the remaining tasks of a wave. The time left on each is kept and
+     * starts counting again when the wave is resumed.
+     */
+    public void pauseWave(int wave) {
+        for (int i = tasks.size - 1; i >= 0; i--) {
+            SpawnTask task = tasks.get(i);
+            if (task.wave == wave) {
+                tasks.removeIndex(i);
+                task.dueTime -= time;
+                pausedTasks.add(task);
+            }
+        }
+    }
+    
+    public void resumeWave(int wave) {
+        for (int i = pausedTasks.size - 1; i >= 0; i--) {
+            SpawnTask task = pausedTasks.get(i);
+            if (task.wave == wave) {
+                pausedTasks.removeIndex(i);
+                task.dueTime += time;
+                insert(task);
+            }
+        }
+    }
+    
+    public boolean isWavePaused(int wave) {
+        for (int i = 0; i < pausedTasks.size; i++) {
+            if (pausedTasks.get(i).wave == wave) return true;
+        }
+        return false;
+    }
+    
+    public void cancelWave(int wave) {
+        cancelWave(tasks, wave);
+        cancelWave(pausedTasks, wave);
+    }
+    
+    private void cancelWave(Array<SpawnTask> list, int wave) {
+        for (int i = list.size - 1; i >= 0; i--) {
+            SpawnTask task = list.get(i);
+            if (task.wave == wave) {
+                list.removeIndex(i);
+                taskPool.free(task);
+            }
+        }
+    }
+    
+    /**
+     * Cancels every wave, paused or not.
+     */
+    public void cancelAll() {
+        taskPool.freeAll(tasks);
+        tasks.clear();
+        taskPool.freeAll(pausedTasks);
+        pausedTasks.clear();
+    }
+    
+    /**
+     * @return The number of spawns waiting, including paused ones.
+     */
+    public int size() {
+        return tasks.size + pausedTasks.size;
+    }
+    
+    public double getTime() {
+        return time;
+    }
+}
@@ -24,7 +24,7 @@
 
 package com.ray3k.themematch3.entities;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.ray3k.themematch3.Core;
 import com.ray3k.themematch3.Entity;
 import com.ray3k.themematch3.states.GameOverState;
@@ -56,7 +56,7 @@ public class GameOverTimerEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(Batch batch, float delta) {
     }
 
     @Override
@@ -24,13 +24,18 @@
 
 package com.ray3k.themematch3.entities;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Buttons;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.math.Interpolation;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Touchable;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
@@ -41,213 +46,423 @@ import com.badlogic.gdx.scenes.scene2d.utils.ActorGestureListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.utils.Align;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
 import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.esotericsoftware.spine.Animation;
 import com.esotericsoftware.spine.SkeletonData;
+import com.ray3k.themematch3.BlendGroup;
 import com.ray3k.themematch3.Core;
 import com.ray3k.themematch3.Entity;
 import com.ray3k.themematch3.SpineDrawable;
+import com.ray3k.themematch3.SpineImage;
 import com.ray3k.themematch3.SpineDrawable.SpineDrawableTemplate;
+import com.ray3k.themematch3.SpineActorPool.SkinPool;
+import com.ray3k.themematch3.board.Board;
+import com.ray3k.themematch3.board.Board.BoardListener;
+import com.ray3k.themematch3.board.MatchShape;
+import com.ray3k.themematch3.board.CellIndex;
+import com.ray3k.themematch3.board.MoveIndex;
+import com.ray3k.themematch3.board.SpawnQueue;
+import com.ray3k.themematch3.board.SpawnQueue.Spawner;
+import com.ray3k.themematch3.simulation.AutoPlayer;
 import com.ray3k.themematch3.states.GameState;
+import java.util.Random;
 
-public class GridEntity extends Entity {
+public class GridEntity extends Entity implements BoardListener, Spawner {
     private static final float GRID_WIDTH = 64.0f;
     private static final float GRID_HEIGHT = 64.0f;
-    private static final int COLUMNS = 8;
-    private static final int ROWS = 8;
+    public static final int DEFAULT_COLUMNS = 8;
+    public static final int DEFAULT_ROWS = 8;
+    private static final int CHUNK_SIZE = 8;
+    private static final float PAN_SPEED = 800.0f;
+    private static final boolean DEBUG_MATCHING = false;
+    private final int columns;
+    private final int rows;
+    private final Random random;
     private NinePatchDrawable drawable;
     private NinePatchDrawable drawableWarning;
     private Container selectedContainer;
     private static final Vector2 temp = new Vector2();
-    private int difficulty;
-    private float spawnFrequency;
     private float spawnCounter;
     private float spawnCount;
     private static final float SPAWN_DELAY = .5f;
     private static final float INITIAL_SPAWN_DELAY = .1f;
-    private int level;
-    private int piecesToNextLevel;
+    public static final int INITIAL_SPAWN = 15;
+    private static final float AUTO_PLAY_DELAY = .5f;
+    public static final float PIECE_SIZE = 60.0f;
+    private Board board;
+    private Table table;
+    private CellIndex<Container> containers;
+    private Image[] pieceImages;
+    private int chunkColumns;
+    private int chunkRows;
+    private Group[] chunks;
+    private IntArray liveChunks;
+    private Pool<Group> chunkPool;
+    private Pool<Container> containerPool;
+    private Group pieceLayer;
+    private final Rectangle viewArea = new Rectangle();
+    private AutoPlayer autoPlayer;
+    private float autoPlayCounter;
+    private SkinPool[] piecePools;
+    private SkeletonData targetSkeleton;
+    private Animation targetAnimation;
+    private SpawnQueue spawnQueue;
+    /**
+     * Created once and run through pooled actions so that the match and drop
+     * cycle does not allocate.
+     */
+    private final Runnable resolveRunnable = new Runnable() {
+        @Override
+        public void run() {
+            board.checkForMatch();
+            dropAll();
+        }
+    };
+    
+    public GridEntity() {
+        this(DEFAULT_COLUMNS, DEFAULT_ROWS, new RandomXS128());
+    }
+    
+    public GridEntity(int columns, int rows, Random random) {
+        this.columns = columns;
+        this.rows = rows;
+        this.random = random;
+    }
     
     @Override
     public void create() {
-        level = 0;
-        increaseLevel();
+        board = new Board(columns, rows, Board.DEFAULT_PIECE_TYPES, random);
+        board.setListener(this);
+        board.setEventBus(GameState.inst().getEventBus());
+        board.setDebugMatching(DEBUG_MATCHING);
+        spawnQueue = new SpawnQueue(this);
+        containers = new CellIndex<Container>(columns, rows);
+        pieceImages = new Image[board.getCellCount()];
+        
+        //warmed by the loading screen, pools grow as more pieces are needed
+        piecePools = getPiecePools();
+        targetSkeleton = Core.getSkeletonData("target");
+        targetAnimation = Core.spineDataCache.getAnimation(targetSkeleton, "animation");
+        board.increaseLevel();
         
         drawable = new NinePatchDrawable(GameState.spineAtlas.createPatch("grid"));
         drawableWarning = new NinePatchDrawable(GameState.spineAtlas.createPatch("grid-warning"));
         
         Table root = GameState.spineStage.getRoot().findActor("root");
         
-        Table table = new Table();
+        //only the chunks of cells in view have actors, the rest are created as the camera pans
+        table = new Table();
         table.setName("gridTable");
         table.setBackground(drawable);
-        root.add(table);
-        
-        Array<Container> containers = new Array<Container>();
-        for (int y = 0; y < ROWS; y++) {
-            for (int x = 0; x < COLUMNS; x++) {
-                final Container container = new Container();
-                container.setBackground(drawable);
-                containers.add(container);
-                table.add(container).size(GRID_WIDTH, GRID_HEIGHT);
-                
-                container.setTouchable(Touchable.enabled);
-                container.addListener(new ClickListener(Buttons.LEFT) {
-                    @Override
-                    public void clicked(InputEvent event, float x, float y) {
-                        if (selectedContainer == null) {
-                            if (container.getUserObject() != null) {
-                                selectedContainer = container;
-                                SpineDrawableTemplate template = new SpineDrawableTemplate();
-                                template.minWidth = 64;
-                                template.minHeight = 64;
-                                SpineDrawable spineDrawable = new SpineDrawable(Core.assetManager.get(Core.DATA_PATH + "/spine/target.json", SkeletonData.class), Core.skeletonRenderer, template);
-                                spineDrawable.getAnimationState().setAnimation(0, "animation", true);
-                                spineDrawable.getAnimationState().getCurrent(0).setLoop(true);
-                                Image image = new Image(spineDrawable);
-                                image.setName("target");
-                                Vector2 point = new Vector2();
-                                point = container.localToStageCoordinates(point);
-                                image.setPosition(point.x, point.y);
-                                image.setTouchable(Touchable.disabled);
-                                GameState.spineStage.addActor(image);
-                            }
-                        } else {
-                            Movement movement = adjacentToSelected(container);
-                            if (movement != Movement.NONE) {
-                                swap(selectedContainer, container);
-                            }
-                            
-                            GameState.spineStage.getRoot().findActor("target").remove();
-                            selectedContainer = null;
-                        }
+        table.setSize(columns * GRID_WIDTH + table.getPadLeft() + table.getPadRight(), rows * GRID_HEIGHT + table.getPadBottom() + table.getPadTop());
+        table.setPosition((GameState.GAME_WIDTH - table.getWidth()) / 2.0f, (GameState.GAME_HEIGHT - table.getHeight()) / 2.0f);
+        root.addActor(table);
+        
+        chunkColumns = (columns + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        chunks = new Group[chunkColumns * chunkRows];
+        liveChunks = new IntArray();
+        
+        chunkPool = new Pool<Group>() {
+            @Override
+            protected Group newObject() {
+                Group group = new Group();
+                group.setTransform(false);
+                return group;
+            }
+        };
+        
+        containerPool = new Pool<Container>() {
+            @Override
+            protected Container newObject() {
+                return createContainer();
+            }
+        };
+        
+        //one blend state for every piece so the whole layer can go out in a single flush
+        pieceLayer = new BlendGroup();
+        pieceLayer.setTransform(false);
+        pieceLayer.setTouchable(Touchable.disabled);
+        pieceLayer.setCullingArea(viewArea);
+        GameState.spineStage.addActor(pieceLayer);
+        
+        updateView();
+        initialSpawn(INITIAL_SPAWN);
+        
+        if (GameState.autoPlay) {
+            autoPlayer = new AutoPlayer();
+        }
+    }
+    
+    /**
+     * @return The pool of each piece type, for the chosen textures and colors.
+     */
+    public static SkinPool[] getPiecePools() {
+        SkinPool[] pools = new SkinPool[Board.DEFAULT_PIECE_TYPES];
+        for (int i = 0; i < pools.length; i++) {
+            SkeletonData skeletonData = Core.getSkeletonData(GameState.textureNames.get(i));
+            pools[i] = Core.pieceActorPool.getPool(skeletonData, GameState.colors.get(i));
+        }
+        return pools;
+    }
+    
+    /**
+     * Building every actor a large board could need would take far too long,
+     * so only enough for a screenful of pieces are built ahead of time. Pools
+     * build the rest when they run out.
+     * @return The number of actors to build ahead of time for each piece type.
+     */
+    public static int getPrewarmCount(int columns, int rows) {
+        int visibleColumns = MathUtils.ceil(GameState.GAME_WIDTH / GRID_WIDTH) + 1;
+        int visibleRows = MathUtils.ceil(GameState.GAME_HEIGHT / GRID_HEIGHT) + 1;
+        int cells = Math.min(columns, visibleColumns) * Math.min(rows, visibleRows);
+        return Math.max(cells, INITIAL_SPAWN) / Board.DEFAULT_PIECE_TYPES + 1;
+    }
+    
+    private Container createContainer() {
+        final Container container = new Container();
+        container.setTouchable(Touchable.enabled);
+        container.addListener(new ClickListener(Buttons.LEFT) {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                if (selectedContainer == null) {
+                    if (!board.isEmpty(getCell(container))) {
+                        select(container);
                     }
-                    
-                });
-                
-                container.addListener(new ActorGestureListener() {
-                    @Override
-                    public void fling(InputEvent event, float velocityX,
-                            float velocityY, int button) {
-                        
-                        if (selectedContainer != null) {
-                            GameState.spineStage.getRoot().findActor("target").remove();
-                            selectedContainer = null;
-                        }
-                        
-                        if (Math.abs(velocityX) > Math.abs(velocityY)) {
-                            if (velocityX > 0) {
-                                swap(container, getAdjacent(container, Movement.RIGHT));
-                            } else {
-                                swap(container, getAdjacent(container, Movement.LEFT));
-                            }
-                        } else {
-                            if (velocityY > 0) {
-                                swap(container, getAdjacent(container, Movement.UP));
-                            } else {
-                                swap(container, getAdjacent(container, Movement.DOWN));
-                            }
-                        }
+                } else {
+                    int selectedCell = getCell(selectedContainer);
+                    int cell = getCell(container);
+                    if (board.isAdjacent(selectedCell, cell)) {
+                        swap(selectedCell, cell);
                     }
-                    
-                });
+
+                    deselect();
+                }
             }
-            table.row();
-        }
+
+        });
+
+        container.addListener(new ActorGestureListener() {
+            @Override
+            public void fling(InputEvent event, float velocityX,
+                    float velocityY, int button) {
+
+                deselect();
+
+                int cell = getCell(container);
+                if (Math.abs(velocityX) > Math.abs(velocityY)) {
+                    if (velocityX > 0) {
+                        swap(cell, board.getAdjacent(cell, 1, 0));
+                    } else {
+                        swap(cell, board.getAdjacent(cell, -1, 0));
+                    }
+                } else {
+                    if (velocityY > 0) {
+                        swap(cell, board.getAdjacent(cell, 0, -1));
+                    } else {
+                        swap(cell, board.getAdjacent(cell, 0, 1));
+                    }
+                }
+            }
+
+        });
         
-        root.pack();
-        initialSpawn(15);
+        return container;
     }
     
-    private static enum Movement {
-        LEFT, RIGHT, UP, DOWN, NONE
+    private void select(Container container) {
+        selectedContainer = container;
+        SpineDrawableTemplate template = new SpineDrawableTemplate();
+        template.minWidth = 64;
+        template.minHeight = 64;
+        SpineDrawable spineDrawable = new SpineDrawable(targetSkeleton, Core.skeletonRenderer, template);
+        spineDrawable.getAnimationState().setAnimation(0, targetAnimation, true);
+        spineDrawable.getAnimationState().getCurrent(0).setLoop(true);
+        Image image = new SpineImage(spineDrawable);
+        image.setName("target");
+        Vector2 point = new Vector2();
+        point = container.localToStageCoordinates(point);
+        image.setPosition(point.x, point.y);
+        image.setTouchable(Touchable.disabled);
+        GameState.spineStage.addActor(image);
     }
     
-    private Movement adjacentToSelected(Container container) {
-        if (selectedContainer.equals(container)) return Movement.NONE;
-        
-        Table table = GameState.spineStage.getRoot().findActor("gridTable");
-        int selectedIndex = table.getCells().indexOf(table.getCell(selectedContainer), false);
-        int targetIndex = table.getCells().indexOf(table.getCell(container), false);
-        
-        if (selectedIndex % COLUMNS == targetIndex % COLUMNS) {
-            if (selectedIndex / COLUMNS == targetIndex / COLUMNS + 1) return Movement.UP;
-            else if (selectedIndex / COLUMNS == targetIndex / COLUMNS - 1) return Movement.DOWN;
-            else return Movement.NONE;
-        } else if (selectedIndex / COLUMNS == targetIndex / COLUMNS) {
-            if (selectedIndex == targetIndex + 1) return Movement.LEFT;
-            else if (selectedIndex == targetIndex - 1) return Movement.RIGHT;
-            else return Movement.NONE;
-        } else return Movement.NONE;
+    /**
+     * Pans to and selects the first piece of an available move.
+     */
+    private void showHint() {
+        MoveIndex moveIndex = board.getMoveIndex();
+        int move = moveIndex.getHint();
+        if (move == -1) return;
+        
+        deselect();
+        int cell = moveIndex.getFrom(move);
+        getCellPosition(cell, temp);
+        Camera camera = GameState.spineStage.getCamera();
+        camera.position.x = temp.x + GRID_WIDTH / 2.0f;
+        camera.position.y = temp.y + GRID_HEIGHT / 2.0f;
+        updateView();
+        select(getContainer(cell));
     }
     
-    private Container getAdjacent(Container container, Movement movement) {
-        Container returnValue = null;
-        
-        Table table = GameState.spineStage.getRoot().findActor("gridTable");
-        int startIndex = table.getCells().indexOf(table.getCell(container), false);
-        
-        if (null != movement) switch (movement) {
-            case RIGHT:
-                int targetIndex = startIndex + 1;
-                if (targetIndex < table.getCells().size && startIndex / COLUMNS == targetIndex / COLUMNS) {
-                    returnValue = (Container) table.getCells().get(targetIndex).getActor();
-                }   break;
-            case LEFT:
-                targetIndex = startIndex - 1;
-                if (targetIndex >= 0 && startIndex / COLUMNS == targetIndex / COLUMNS) {
-                    returnValue = (Container) table.getCells().get(targetIndex).getActor();
-                }   break;
-            case UP:
-                targetIndex = startIndex - COLUMNS;
-                if (targetIndex >= 0) {
-                    returnValue = (Container) table.getCells().get(targetIndex).getActor();
-                }   break;
-            case DOWN:
-                targetIndex = startIndex + COLUMNS;
-                if (targetIndex < table.getCells().size) {
-                    returnValue = (Container) table.getCells().get(targetIndex).getActor();
-                }   break;
-            default:
-                break;
+    private void deselect() {
+        if (selectedContainer != null) {
+            GameState.spineStage.getRoot().findActor("target").remove();
+            selectedContainer = null;
         }
+    }
+    
+    /**
+     * Keeps the camera on the board and creates or releases chunks of cell
+     * containers as they enter or leave the view.
+     */
+    private void updateView() {
+        Camera camera = GameState.spineStage.getCamera();
+        float viewWidth = GameState.spineStage.getViewport().getWorldWidth();
+        float viewHeight = GameState.spineStage.getViewport().getWorldHeight();
         
-        return returnValue;
+        if (table.getWidth() <= viewWidth) {
+            camera.position.x = table.getX() + table.getWidth() / 2.0f;
+        } else {
+            camera.position.x = MathUtils.clamp(camera.position.x, table.getX() + viewWidth / 2.0f, table.getX() + table.getWidth() - viewWidth / 2.0f);
+        }
+        
+        if (table.getHeight() <= viewHeight) {
+            camera.position.y = table.getY() + table.getHeight() / 2.0f;
+        } else {
+            camera.position.y = MathUtils.clamp(camera.position.y, table.getY() + viewHeight / 2.0f, table.getY() + table.getHeight() - viewHeight / 2.0f);
+        }
+        
+        viewArea.set(camera.position.x - viewWidth / 2.0f, camera.position.y - viewHeight / 2.0f, viewWidth, viewHeight);
+        
+        //visible range of cells
+        float left = viewArea.x - getBoardX();
+        float bottom = viewArea.y - getBoardY();
+        int firstColumn = MathUtils.clamp(MathUtils.floor(left / GRID_WIDTH), 0, columns - 1);
+        int lastColumn = MathUtils.clamp(MathUtils.floor((left + viewWidth) / GRID_WIDTH), 0, columns - 1);
+        int firstRow = MathUtils.clamp(rows - 1 - MathUtils.floor((bottom + viewHeight) / GRID_HEIGHT), 0, rows - 1);
+        int lastRow = MathUtils.clamp(rows - 1 - MathUtils.floor(bottom / GRID_HEIGHT), 0, rows - 1);
+        
+        int firstChunkColumn = firstColumn / CHUNK_SIZE;
+        int lastChunkColumn = lastColumn / CHUNK_SIZE;
+        int firstChunkRow = firstRow / CHUNK_SIZE;
+        int lastChunkRow = lastRow / CHUNK_SIZE;
+        
+        for (int i = liveChunks.size - 1; i >= 0; i--) {
+            int chunk = liveChunks.get(i);
+            int chunkColumn = chunk % chunkColumns;
+            int chunkRow = chunk / chunkColumns;
+            if (chunkColumn < firstChunkColumn || chunkColumn > lastChunkColumn || chunkRow < firstChunkRow || chunkRow > lastChunkRow) {
+                releaseChunk(chunk);
+                liveChunks.removeIndex(i);
+            }
+        }
+        
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            for (int chunkColumn = firstChunkColumn; chunkColumn <= lastChunkColumn; chunkColumn++) {
+                int chunk = chunkRow * chunkColumns + chunkColumn;
+                if (chunks[chunk] == null) {
+                    obtainChunk(chunk);
+                    liveChunks.add(chunk);
+                }
+            }
+        }
     }
     
-    private void swap(final Container start, final Container destination) {
-        Actor actor = (Actor) start.getUserObject();
-        Actor other = null;
-        if (destination != null) {
-            other = (Actor) destination.getUserObject();
+    private void obtainChunk(int chunk) {
+        int firstColumn = (chunk % chunkColumns) * CHUNK_SIZE;
+        int firstRow = (chunk / chunkColumns) * CHUNK_SIZE;
+        int lastColumn = Math.min(firstColumn + CHUNK_SIZE, columns);
+        int lastRow = Math.min(firstRow + CHUNK_SIZE, rows);
+        
+        Group group = chunkPool.obtain();
+        group.setBounds(table.getPadLeft() + firstColumn * GRID_WIDTH, table.getPadBottom() + (rows - lastRow) * GRID_HEIGHT, (lastColumn - firstColumn) * GRID_WIDTH, (lastRow - firstRow) * GRID_HEIGHT);
+        
+        for (int row = firstRow; row < lastRow; row++) {
+            for (int column = firstColumn; column < lastColumn; column++) {
+                Container container = containerPool.obtain();
+                container.setBounds((column - firstColumn) * GRID_WIDTH, (lastRow - 1 - row) * GRID_HEIGHT, GRID_WIDTH, GRID_HEIGHT);
+                container.setBackground(board.isColumnFree(column) ? drawable : drawableWarning);
+                containers.put(column, row, container);
+                group.addActor(container);
+            }
         }
         
-        if (actor != null) {
-            GameState.inst().playSound("swap");
+        table.addActor(group);
+        chunks[chunk] = group;
+    }
+    
+    private void releaseChunk(int chunk) {
+        Group group = chunks[chunk];
+        SnapshotArray<Actor> children = group.getChildren();
+        for (int i = 0; i < children.size; i++) {
+            Container container = (Container) children.get(i);
+            if (container == selectedContainer) deselect();
+            containers.remove(getCell(container));
+            containerPool.free(container);
+        }
+        group.clearChildren();
+        group.remove();
+        chunkPool.free(group);
+        chunks[chunk] = null;
+    }
+    
+    private float getBoardX() {
+        return table.getX() + table.getPadLeft();
+    }
+    
+    private float getBoardY() {
+        return table.getY() + table.getPadBottom();
+    }
+    
+    public Board getBoard() {
+        return board;
+    }
+    
+    public int getCell(Container container) {
+        return containers.getCell(container);
+    }
+    
+    public int getColumn(Container container) {
+        return containers.getColumn(container);
+    }
+    
+    public int getRow(Container container) {
+        return containers.getRow(container);
+    }
+    
+    public Container getContainer(int cell) {
+        return containers.get(cell);
+    }
+    
+    public Container getContainer(int column, int row) {
+        return containers.get(column, row);
+    }
+    
+    private void getCellPosition(int cell, Vector2 position) {
+        position.set(getBoardX() + board.getColumn(cell) * GRID_WIDTH, getBoardY() + (rows - 1 - board.getRow(cell)) * GRID_HEIGHT);
+    }
+    
+    private void swap(int start, int destination) {
+        if (board.swap(start, destination)) {
+            Image actor = pieceImages[start];
+            Image other = pieceImages[destination];
+            pieceImages[start] = other;
+            pieceImages[destination] = actor;
             
-            temp.set(start.getPadLeft(), start.getPadBottom());
-            start.localToStageCoordinates(temp);
+            getCellPosition(start, temp);
             float startX = temp.x;
             float startY = temp.y;
             
-            
-            start.setUserObject(other);
-            destination.setUserObject(actor);
-            
-            temp.set(destination.getPadLeft(), destination.getPadBottom());
-            destination.localToStageCoordinates(temp);
+            getCellPosition(destination, temp);
             float endX = temp.x;
             float endY = temp.y;
             
             actor.clearActions();
-            actor.addAction(Actions.sequence(Actions.moveTo(endX, endY, .15f, Interpolation.smooth), new Action() {
-                @Override
-                public boolean act(float delta) {
-                    checkForMatch();
-                    dropAll();
-                    return true;
-                }
-            }));
+            actor.addAction(Actions.sequence(Actions.moveTo(endX, endY, .15f, Interpolation.smooth), Actions.run(resolveRunnable)));
             
             if (other != null) {
                 other.clearActions();
@@ -258,60 +473,20 @@ public class GridEntity extends Entity {
         }
     }
     
-    private boolean isColumnFree(int columnIndex) {
-        return getFreeContainer(columnIndex) != null;
-    }
-    
-    private Container getFreeContainer(int columnIndex) {
-        Container returnValue = null;
-        Table table = (Table) GameState.spineStage.getRoot().findActor("gridTable");
-        
-        for (int i = columnIndex % COLUMNS; i < table.getCells().size; i += COLUMNS) {
-            Container container = (Container) table.getCells().get(i).getActor();
-            if (container.getUserObject() == null) {
-                returnValue = container;
-            } else {
-                break;
-            }
-        }
-        
-        return returnValue;
-    }
-    
     private void initialSpawn(int numberOfSpawn) {
+        int wave = spawnQueue.startWave();
         for (int i = 0; i < numberOfSpawn; i++) {
-            GameState.spineStage.addAction(Actions.delay(i * INITIAL_SPAWN_DELAY, new Action() {
-                @Override
-                public boolean act(float delta) {
-                    int columnIndex;
-
-                    do {
-                        columnIndex = MathUtils.random(COLUMNS - 1);
-                    } while (!isColumnFree(columnIndex));
-                    
-                    int item = MathUtils.random(difficulty);
-                    addPiece(columnIndex, GameState.textureNames.get(item), GameState.colors.get(item));
-                    return true;
-                }
-            }));
+            spawnQueue.schedule(wave, i * INITIAL_SPAWN_DELAY, true);
         }
     }
     
     private void addRandomPiece() {
-        int columnIndex = MathUtils.random(COLUMNS - 1);
+        int cell = board.spawnRandomPiece();
         
-        if (isColumnFree(columnIndex)) {
-            int item = MathUtils.random(difficulty);
-            addPiece(columnIndex, GameState.textureNames.get(item), GameState.colors.get(item));
-            
-            if (!isColumnFree(columnIndex)) {
-                GameState.inst().playSound("warning");
-            }
-        } else {
+        if (cell == -1) {
             GameState.entityManager.addEntity(new GameOverTimerEntity(3.0f));
-            removeAll();
-            GameState.inst().playSound("lose");
-            GameState.spineStage.getRoot().clearActions();
+            board.removeAll();
+            spawnQueue.cancelAll();
             spawnCounter = 100.0f;
             spawnCount = 0;
         }
@@ -320,342 +495,141 @@ public class GridEntity extends Entity {
     }
     
     private void addRandomPieceSafe() {
-        int columnIndex;
-        
-        do {
-            columnIndex = MathUtils.random(COLUMNS - 1);
-        } while (!isColumnFree(columnIndex));
-        
-        int item = MathUtils.random(difficulty);
-        addPiece(columnIndex, GameState.textureNames.get(item), GameState.colors.get(item));
-
-        if (!isColumnFree(columnIndex)) {
-            GameState.inst().playSound("warning");
+        if (board.spawnRandomPieceSafe() != -1) {
+            updateWarningContainers();
         }
-        
-        updateWarningContainers();
     }
     
-    private boolean addPiece(int columnIndex, String name, String color) {
-        GameState.inst().playSound("drop");
-        
-        Container container = getFreeContainer(columnIndex);
-        if (container != null) {
-            SpineDrawableTemplate template = new SpineDrawableTemplate();
-            template.minWidth = 60;
-            template.minHeight = 60;
-
-            SpineDrawable spineDrawable = new SpineDrawable(Core.assetManager.get(Core.DATA_PATH + "/spine/" + name + ".json", SkeletonData.class), Core.skeletonRenderer, template);
-            spineDrawable.getSkeleton().setSkin(color);
-            Image image = new Image(spineDrawable);
-            image.setUserObject(name + color);
-            image.setTouchable(Touchable.disabled);
-            
-            container.setUserObject(image);
-            GameState.spineStage.addActor(image);
-            
-            temp.set(container.getPadLeft(), container.getPadBottom());
-            container.localToStageCoordinates(temp);
-            image.setPosition(temp.x, temp.y + GameState.GAME_HEIGHT);
-            image.addAction(Actions.sequence(Actions.moveTo(temp.x, temp.y, 1.0f, Interpolation.bounceOut), Actions.delay(.25f), new Action() {
-                @Override
-                public boolean act(float delta) {
-                    checkForMatch();
-                    dropAll();
-                    return true;
-                }
-            }));
-            return true;
+    private void dropAll() {
+        if (board.dropAll()) {
+            GameState.spineStage.addAction(Actions.delay(.75f, Actions.run(resolveRunnable)));
         } else {
-            return false;
+            board.checkForMatch();
         }
     }
     
-    private void checkForMatch() {
-        Array<Container> totalMatchingContainers = new Array<Container>();
-        
-        Table table = (Table) GameState.spineStage.getRoot().findActor("gridTable");
-        
-        //rows
-        Array<Container> matchingContainers = new Array<Container>();
-        int row = 0;
-        for (int i = 0; i < table.getCells().size; i++) {
-            if (i / COLUMNS > row) {
-                row = i / COLUMNS;
-                
-                if (matchingContainers.size >= 3) {
-                    totalMatchingContainers.addAll(matchingContainers);
-                }
-                matchingContainers.clear();
-            }
-            
-            Container container = (Container) table.getCells().get(i).getActor();
-            
-            if (matchingContainers.size == 0 || container.getUserObject() == null || !((Image)container.getUserObject()).getUserObject().equals(((Image)matchingContainers.first().getUserObject()).getUserObject())) {
-                if (matchingContainers.size >= 3) {
-                    totalMatchingContainers.addAll(matchingContainers);
-                }
-                matchingContainers.clear();
-            }
-            
-            if (container.getUserObject() != null) {
-                matchingContainers.add(container);
+    private void updateWarningContainers() {
+        for (int i = 0; i < liveChunks.size; i++) {
+            SnapshotArray<Actor> children = chunks[liveChunks.get(i)].getChildren();
+            for (int j = 0; j < children.size; j++) {
+                Container container = (Container) children.get(j);
+                container.setBackground(board.isColumnFree(getColumn(container)) ? drawable : drawableWarning);
             }
         }
-        
-        if (matchingContainers.size >= 3) {
-            totalMatchingContainers.addAll(matchingContainers);
-        }
-        
-        //columns
-        matchingContainers.clear();
-        for (int column = 0; column < COLUMNS; column++) {
-            for (int i = column; i < table.getCells().size; i += COLUMNS) {
-                
-                Container container = (Container) table.getCells().get(i).getActor();
-
-                if (matchingContainers.size == 0 || container.getUserObject() == null || !((Image) container.getUserObject()).getUserObject().equals(((Image)matchingContainers.first().getUserObject()).getUserObject())) {
-                    if (matchingContainers.size >= 3) {
-                        totalMatchingContainers.addAll(matchingContainers);
-                    }
-                    matchingContainers.clear();
-                }
+    }
 
-                if (container.getUserObject() != null) {
-                    matchingContainers.add(container);
-                }
-            }
-            
-            if (matchingContainers.size >= 3) {
-                score(matchingContainers.size);
-                remove(matchingContainers);
-            }
-            
-            matchingContainers.clear();
-        }
+    @Override
+    public void pieceAdded(int cell, byte piece) {
+        Image image = piecePools[piece].obtain();
         
-        //tally score and remove from field
-        if (totalMatchingContainers.size >= 3) {
-            score(totalMatchingContainers.size);
-            remove(totalMatchingContainers);
-        }
-    }
-    
-    private void score(int matchSize) {
-        switch (matchSize) {
-            case 3:
-                GameState.inst().addScore(1);
-                GameState.inst().playSound("match");
-                break;
-            case 4:
-                GameState.inst().addScore(5);
-                GameState.inst().playSound("bonus");
-                break;
-            case 5:
-                GameState.inst().addScore(10);
-                GameState.inst().playSound("bonus");
-                break;
-            case 6:
-                GameState.inst().addScore(25);
-                GameState.inst().playSound("bonus");
-                break;
-            default:
-                GameState.inst().addScore(50);
-                GameState.inst().playSound("bonus");
-                break;
-        }
+        pieceImages[cell] = image;
+        pieceLayer.addActor(image);
         
-        piecesToNextLevel -= matchSize;
-        if (piecesToNextLevel <= 0) increaseLevel();
-    }
-    
-    private void removeAll() {
-        Table table = GameState.spineStage.getRoot().findActor("gridTable");
-        for (int i = 0; i < table.getCells().size; i++) {
-            remove((Container) table.getCells().get(i).getActor());
-        }
-    }
-    
-    private void remove(Array<Container> containers) {
-        for (Container container : containers) {
-            remove(container);
-        }
+        getCellPosition(cell, temp);
+        image.setPosition(temp.x, temp.y + GameState.GAME_HEIGHT);
+        image.addAction(Actions.sequence(Actions.moveTo(temp.x, temp.y, 1.0f, Interpolation.bounceOut), Actions.delay(.25f, Actions.run(resolveRunnable))));
     }
-    
-    private void remove(final Container container) {
-        Actor actor = (Actor) container.getUserObject();
-        if (actor != null) {
-            temp.set(container.getPadLeft(), container.getPadRight());
-            container.localToStageCoordinates(temp);
-            final float tempX = temp.x;
-            final float tempY = temp.y;
 
-            container.setUserObject(null);
-            actor.clearActions();
-            actor.addAction(Actions.sequence(Actions.moveTo(tempX, tempY - GameState.GAME_HEIGHT, .5f, Interpolation.circleIn), Actions.removeActor()));
-        }
-    }
-    
-    private void dropAll() {
-        final Table table = GameState.spineStage.getRoot().findActor("gridTable");
-        boolean didDrop = false;
-        for (int i = table.getCells().size - 1; i >= 0; i--) {
-            if (drop((Container) table.getCells().get(i).getActor())) {
-                didDrop = true;
-            }
-        }
-        if (didDrop) {
-            GameState.spineStage.addAction(Actions.sequence(Actions.delay(.75f), new Action() {
-                @Override
-                public boolean act(float delta) {
-                    checkForMatch();
-                    dropAll();
-                    return true;
-                }
-            }));
-        } else {
-            checkForMatch();
-        }
+    @Override
+    public void pieceMoved(int fromCell, int toCell) {
+        Image actor = pieceImages[fromCell];
+        pieceImages[fromCell] = null;
+        pieceImages[toCell] = actor;
+        
+        getCellPosition(toCell, temp);
+        actor.clearActions();
+        actor.addAction(Actions.moveTo(temp.x, temp.y, .5f, Interpolation.bounceOut));
     }
-    
-    private boolean drop(Container container) {
-        boolean didDrop = false;
-        Actor actor = (Actor) container.getUserObject();
-        if (actor != null) {
-            Table table = GameState.spineStage.getRoot().findActor("gridTable");
-            int index = table.getCells().indexOf(table.getCell(container), false);
-            int column = index % COLUMNS;
-            
-            for (int i = column + COLUMNS * (ROWS - 1); i > index; i -= COLUMNS) {
-                Container targetContainer = (Container) table.getCells().get(i).getActor();
-                
-                if (targetContainer.getUserObject() == null) {
-                    container.setUserObject(null);
-                    targetContainer.setUserObject(actor);
-                    temp.set(targetContainer.getPadLeft(), targetContainer.getPadBottom());
-                    targetContainer.localToStageCoordinates(temp);
-                    float endX = temp.x;
-                    float endY = temp.y;
-                    
-                    actor.clearActions();
-                    actor.addAction(Actions.moveTo(endX, endY, .5f, Interpolation.bounceOut));
-                    didDrop = true;
-                    break;
-                }
-            }
-        }
+
+    @Override
+    public void pieceRemoved(int cell) {
+        Image actor = pieceImages[cell];
+        pieceImages[cell] = null;
         
-        return didDrop;
+        getCellPosition(cell, temp);
+        actor.clearActions();
+        actor.addAction(Actions.sequence(Actions.moveTo(temp.x, temp.y - GameState.GAME_HEIGHT, .5f, Interpolation.circleIn), Actions.removeActor()));
     }
-    
-    private void updateWarningContainers() {
-        Table table = GameState.spineStage.getRoot().findActor("gridTable");
-        for (int i = 0; i < COLUMNS; i++) {
-            if (isColumnFree(i)) {
-                for (int j = i; j < table.getCells().size; j += COLUMNS) {
-                    ((Container) table.getCells().get(j).getActor()).setBackground(drawable);
-                }
-            } else {
-                for (int j = i; j < table.getCells().size; j += COLUMNS) {
-                    ((Container) table.getCells().get(j).getActor()).setBackground(drawableWarning);
-                }
-            }
-        }
+
+    @Override
+    public void scored(int points, int matchSize, MatchShape shape) {
     }
-    
-    private void increaseLevel() {
-        level++;
-        
-        if (level > 1) {
-            GameState.inst().playSound("victory");
 
+    @Override
+    public void levelIncreased(int level) {
+        if (level > 1) {
             Image image = new Image(GameState.spineAtlas.findRegion("levelup"));
             image.setScaling(Scaling.none);
-            image.setPosition(GameState.GAME_WIDTH / 2.0f, GameState.GAME_HEIGHT / 2.0f, Align.center);
+            Camera camera = GameState.spineStage.getCamera();
+            image.setPosition(camera.position.x, camera.position.y, Align.center);
             image.setTouchable(Touchable.disabled);
             GameState.spineStage.addActor(image);
             image.addAction(Actions.sequence(Actions.fadeOut(1.5f), Actions.removeActor()));
         }
         
-        switch (level) {
-            case 1:
-                difficulty = 3;
-                spawnFrequency = 5.0f;
-                spawnCount = 3;
-                piecesToNextLevel = 15;
-                break;
-            case 2:
-                difficulty = 3;
-                spawnFrequency = 4.0f;
-                spawnCount = 4;
-                piecesToNextLevel = 20;
-                break;
-            case 3:
-                difficulty = 4;
-                spawnFrequency = 4.0f;
-                spawnCount = 4;
-                piecesToNextLevel = 25;
-                break;
-            case 4:
-                difficulty = 4;
-                spawnFrequency = 4.0f;
-                spawnCount = 5;
-                piecesToNextLevel = 30;
-                break;
-            case 5:
-                difficulty = 4;
-                spawnFrequency = 3.5f;
-                spawnCount = 5;
-                piecesToNextLevel = 35;
-                break;
-            case 6:
-                difficulty = 5;
-                spawnFrequency = 3.5f;
-                spawnCount = 5;
-                piecesToNextLevel = 40;
-                break;
-            case 7:
-                difficulty = 5;
-                spawnFrequency = 3.5f;
-                spawnCount = 6;
-                piecesToNextLevel = 45;
-                break;
-            case 8:
-                difficulty = 6;
-                spawnFrequency = 3.5f;
-                spawnCount = 6;
-                piecesToNextLevel = 50;
-                break;
-            case 9:
-                difficulty = 6;
-                spawnFrequency = 3.0f;
-                spawnCount = 6;
-                piecesToNextLevel = 60;
-                break;
-        }
-        
-        spawnCounter = spawnFrequency;
-        GameState.inst().levelLabel.setText("Level\n" + level);
+        spawnCounter = board.getSpawnFrequency();
+        spawnCount = board.getSpawnCount();
     }
 
     @Override
     public void act(float delta) {
+        Camera camera = GameState.spineStage.getCamera();
+        if (Gdx.input.isKeyPressed(Keys.LEFT) || Gdx.input.isKeyPressed(Keys.A)) camera.position.x -= PAN_SPEED * delta;
+        if (Gdx.input.isKeyPressed(Keys.RIGHT) || Gdx.input.isKeyPressed(Keys.D)) camera.position.x += PAN_SPEED * delta;
+        if (Gdx.input.isKeyPressed(Keys.DOWN) || Gdx.input.isKeyPressed(Keys.S)) camera.position.y -= PAN_SPEED * delta;
+        if (Gdx.input.isKeyPressed(Keys.UP) || Gdx.input.isKeyPressed(Keys.W)) camera.position.y += PAN_SPEED * delta;
+        updateView();
+        
+        if (Gdx.input.isKeyJustPressed(Keys.H)) showHint();
+        
+        if (autoPlayer != null) {
+            //the search runs on the pool so large boards don't stall the frame
+            if (autoPlayer.isSearchDone()) {
+                int move = autoPlayer.takeMove(board);
+                if (move != -1) {
+                    int from = board.getMoveIndex().getFrom(move);
+                    int to = board.getMoveIndex().getTo(move);
+                    if (board.isEmpty(from)) {
+                        swap(to, from);
+                    } else {
+                        swap(from, to);
+                    }
+                }
+            }
+            
+            autoPlayCounter -= delta;
+            if (autoPlayCounter < 0 && !autoPlayer.isSearching()) {
+                autoPlayCounter = AUTO_PLAY_DELAY;
+                autoPlayer.startSearch(board);
+            }
+        }
+        
         spawnCounter -= delta;
         if (spawnCounter < 0) {
-            spawnCounter = spawnFrequency;
-            
-            addRandomPiece();
+            spawnCounter = board.getSpawnFrequency();
             
+            //the first piece of a wave may end the game, the rest wait for a free column
+            int wave = spawnQueue.startWave();
+            spawnQueue.schedule(wave, 0, false);
             for (int i = 1; i < spawnCount; i++) {
-                GameState.spineStage.addAction(Actions.delay(i * SPAWN_DELAY, new Action() {
-                    @Override
-                    public boolean act(float delta) {
-                        addRandomPieceSafe();
-                        return true;
-                    }
-                }));
+                spawnQueue.schedule(wave, i * SPAWN_DELAY, true);
             }
         }
+        
+        spawnQueue.update(delta);
+    }
+
+    @Override
+    public void spawn(int wave, boolean safe) {
+        if (safe) {
+            addRandomPieceSafe();
+        } else {
+            addRandomPiece();
+        }
+    }
+    
+    public SpawnQueue getSpawnQueue() {
+        return spawnQueue;
     }
 
     @Override
@@ -663,14 +637,23 @@ public class GridEntity extends Entity {
     }
 
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(Batch batch, float delta) {
     }
 
     @Override
     public void destroy() {
+        if (autoPlayer != null) {
+            autoPlayer.dispose();
+            autoPlayer = null;
+        }
+        
+        //return pieces that are still on the stage to their pools
+        while (pieceLayer.hasChildren()) {
+            pieceLayer.getChildren().peek().remove();
+        }
     }
 
     @Override
     public void collision(Entity other) {
     }
-}
+}
\ No newline at end of file
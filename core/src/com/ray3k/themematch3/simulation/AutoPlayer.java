@@ -0,0 +1,383 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.simulation;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.ray3k.themematch3.board.Board;
+import com.ray3k.themematch3.board.Board.BoardListener;
+import com.ray3k.themematch3.board.MatchShape;
+import com.ray3k.themematch3.board.MoveIndex;
+import com.ray3k.themematch3.simulation.Simulation.Player;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tries every swap on the board and plays the one that scores the most.
+ * Each swap is played out on a scratch board for a limited number of cascade
+ * passes. When looking more than one swap ahead, half of the best follow-up
+ * score is added, where follow-ups are limited to the swaps in the scratch
+ * board's {@link MoveIndex}. Candidate swaps are split across a
+ * {@link ForkJoinPool} and moves are identified as in {@link MoveIndex}.
+ * <p>
+ * Every position copies the whole board, so a full search grows with the
+ * square of the board area. Boards with more than {@link #FULL_SEARCH_CELLS}
+ * cells are searched one swap ahead, over at most
+ * {@link #MAX_CANDIDATES} of the matching swaps in the board's move index.
+ */
+public class AutoPlayer implements Player, Disposable {
+    /**
+     * Candidate ranges at or below this size are searched without splitting.
+     */
+    private static final int SPLIT_THRESHOLD = 8;
+    /**
+     * Boards up to this size try every swap, as many swaps ahead as asked.
+     */
+    public static final int FULL_SEARCH_CELLS = 64;
+    /**
+     * The most matching swaps tried on boards larger than
+     * {@link #FULL_SEARCH_CELLS}.
+     */
+    public static final int MAX_CANDIDATES = 64;
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int plies;
+    private final int cascades;
+    private final ThreadLocal<Scratch> scratch;
+    private final AtomicLong positions;
+    private long searchNanos;
+    private long lastPositions;
+    private long lastNanos;
+    private Board searchBoard;
+    private ForkJoinTask<Long> search;
+    private long searchStart;
+    private long searchStartPositions;
+    private volatile boolean cancelled;
+    
+    /**
+     * Searches two swaps and four cascades ahead on every core.
+     */
+    public AutoPlayer() {
+        this(new ForkJoinPool(), true, 2, 4);
+    }
+    
+    /**
+     * @param plies The number of swaps to look ahead, at least 1.
+     * @param cascades The number of match and drop passes played out after
+     * each swap.
+     */
+    public AutoPlayer(ForkJoinPool pool, int plies, int cascades) {
+        this(pool, false, plies, cascades);
+    }
+    
+    private AutoPlayer(ForkJoinPool pool, boolean ownsPool, int plies, int cascades) {
+        if (plies < 1) throw new IllegalArgumentException("plies must be at least 1: " + plies);
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.plies = plies;
+        this.cascades = cascades;
+        scratch = new ThreadLocal<Scratch>();
+        positions = new AtomicLong();
+    }
+    
+    /**
+     * Boards for each ply of the search, owned by a single worker thread.
+     */
+    private static class Scratch implements BoardListener {
+        private final Board[] boards;
+        private int points;
+        private long positions;
+        
+        public Scratch(Board board, int plies) {
+            boards = new Board[plies];
+            for (int i = 0; i < plies; i++) {
+                boards[i] = new Board(board.getColumns(), board.getRows(), board.getMatchFinder().getPieceTypes());
+                boards[i].setListener(this);
+            }
+        }
+        
+        public boolean fits(Board board) {
+            return boards[0].getColumns() == board.getColumns() && boards[0].getRows() == board.getRows();
+        }
+
+        @Override
+        public void pieceAdded(int cell, byte piece) {
+        }
+
+        @Override
+        public void pieceMoved(int fromCell, int toCell) {
+        }
+
+        @Override
+        public void pieceRemoved(int cell) {
+        }
+
+        @Override
+        public void scored(int points, int matchSize, MatchShape shape) {
+            this.points += points;
+        }
+
+        @Override
+        public void levelIncreased(int level) {
+        }
+    }
+    
+    private Scratch getScratch(Board board) {
+        Scratch value = scratch.get();
+        if (value == null || !value.fits(board)) {
+            value = new Scratch(board, plies);
+            scratch.set(value);
+        }
+        return value;
+    }
+    
+    /**
+     * Searches a range of candidate moves. The result packs the best score
+     * in the high 32 bits and the inverted move in the low 32 bits, so the
+     * largest result is the best move and ties go to the lowest move.
+     */
+    private class SearchTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final Board board;
+        private final boolean shallow;
+        private final int start;
+        private final int end;
+
+        /**
+         * @param shallow Search one swap ahead over the board's matching
+         * swaps, where start and end index the move index, instead of every
+         * move.
+         */
+        public SearchTask(Board board, boolean shallow, int start, int end) {
+            this.board = board;
+            this.shallow = shallow;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Long compute() {
+            if (cancelled) return pack(-1, -1);
+            
+            if (end - start <= SPLIT_THRESHOLD) {
+                Scratch scratch = getScratch(board);
+                long startPositions = scratch.positions;
+                long best = pack(-1, -1);
+                for (int i = start; i < end && !cancelled; i++) {
+                    int move = shallow ? board.getMoveIndex().getMove(i) : i;
+                    int score = evaluate(scratch, 0, shallow ? 1 : plies, board, move);
+                    if (score >= 0) best = Math.max(best, pack(score, move));
+                }
+                positions.addAndGet(scratch.positions - startPositions);
+                return best;
+            }
+            
+            int middle = (start + end) >>> 1;
+            SearchTask left = new SearchTask(board, shallow, start, middle);
+            left.fork();
+            long right = new SearchTask(board, shallow, middle, end).compute();
+            return Math.max(left.join(), right);
+        }
+    }
+    
+    /**
+     * @return A task that searches the board as deep as its size allows.
+     */
+    private SearchTask createSearch(Board board) {
+        if (board.getCellCount() <= FULL_SEARCH_CELLS) {
+            return new SearchTask(board, false, 0, board.getCellCount() * 2);
+        }
+        return new SearchTask(board, true, 0, Math.min(board.getMoveIndex().getMoveCount(), MAX_CANDIDATES));
+    }
+    
+    /**
+     * Plays a move on the scratch board of the given ply.
+     * @param depth The number of swaps to look ahead in this search.
+     * @return The points scored, including half of the best follow-up, or -1
+     * if the move is off the board or would not change it.
+     */
+    private int evaluate(Scratch scratch, int ply, int depth, Board board, int move) {
+        MoveIndex moveIndex = board.getMoveIndex();
+        int from = moveIndex.getFrom(move);
+        int to = moveIndex.getTo(move);
+        if (move % 2 == 0 ? board.getColumn(from) + 1 >= board.getColumns() : board.getRow(from) + 1 >= board.getRows()) return -1;
+        if (board.getPiece(from) == board.getPiece(to)) return -1;
+        
+        Board next = scratch.boards[ply];
+        next.set(board);
+        if (board.isEmpty(from)) {
+            next.swap(to, from);
+        } else {
+            next.swap(from, to);
+        }
+        scratch.points = 0;
+        next.resolve(cascades);
+        int score = scratch.points;
+        scratch.positions++;
+        
+        if (ply + 1 < depth) {
+            int followUpScore = 0;
+            MoveIndex nextMoves = next.getMoveIndex();
+            for (int i = 0; i < nextMoves.getMoveCount() && !cancelled; i++) {
+                followUpScore = Math.max(followUpScore, evaluate(scratch, ply + 1, depth, next, nextMoves.getMove(i)));
+            }
+            score += followUpScore / 2;
+        }
+        
+        return score;
+    }
+    
+    private static long pack(int score, int move) {
+        return ((long) score << 32) | (~move & 0xFFFFFFFFL);
+    }
+    
+    /**
+     * Searches without changing the board.
+     * @return The best scoring move or -1 if no move scores.
+     */
+    public int findMove(Board board) {
+        long start = System.nanoTime();
+        long startPositions = positions.get();
+        long best = pool.invoke(createSearch(board));
+        return finishSearch(best, start, startPositions);
+    }
+    
+    private int finishSearch(long best, long start, long startPositions) {
+        lastNanos = System.nanoTime() - start;
+        lastPositions = positions.get() - startPositions;
+        searchNanos += lastNanos;
+        
+        int score = (int) (best >> 32);
+        return score > 0 ? ~(int) best : -1;
+    }
+    
+    /**
+     * Searches a copy of the board on the pool and returns at once, so the
+     * caller can keep playing while the search runs. Collect the move with
+     * {@link #takeMove(Board)} once {@link #isSearchDone()}.
+     * @throws IllegalStateException if a search is already running.
+     */
+    public void startSearch(Board board) {
+        if (search != null) throw new IllegalStateException("A search is already running.");
+        
+        if (searchBoard == null || searchBoard.getColumns() != board.getColumns() || searchBoard.getRows() != board.getRows()) {
+            searchBoard = new Board(board.getColumns(), board.getRows(), board.getMatchFinder().getPieceTypes());
+        }
+        searchBoard.set(board);
+        
+        searchStart = System.nanoTime();
+        searchStartPositions = positions.get();
+        search = pool.submit(createSearch(searchBoard));
+    }
+    
+    public boolean isSearching() {
+        return search != null;
+    }
+    
+    public boolean isSearchDone() {
+        return search != null && search.isDone();
+    }
+    
+    /**
+     * Waits for the search started by {@link #startSearch(Board)}.
+     * @param board The board the move will be played on.
+     * @return The best scoring move or -1 if no move scores or either cell of
+     * the move changed since the search started.
+     */
+    public int takeMove(Board board) {
+        if (search == null) throw new IllegalStateException("No search was started.");
+        
+        long best = search.join();
+        search = null;
+        int move = finishSearch(best, searchStart, searchStartPositions);
+        if (move == -1) return -1;
+        
+        MoveIndex moveIndex = board.getMoveIndex();
+        int from = moveIndex.getFrom(move);
+        int to = moveIndex.getTo(move);
+        if (board.getPiece(from) != searchBoard.getPiece(from) || board.getPiece(to) != searchBoard.getPiece(to)) return -1;
+        return move;
+    }
+    
+    @Override
+    public boolean move(Board board, Random random) {
+        int move = findMove(board);
+        if (move == -1) return false;
+        
+        int from = board.getMoveIndex().getFrom(move);
+        int to = board.getMoveIndex().getTo(move);
+        return board.isEmpty(from) ? board.swap(to, from) : board.swap(from, to);
+    }
+    
+    /**
+     * @return The number of boards evaluated by every search so far.
+     */
+    public long getPositions() {
+        return positions.get();
+    }
+    
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+    
+    public double getPositionsPerSecond() {
+        return searchNanos > 0 ? positions.get() / (searchNanos / 1e9) : 0;
+    }
+    
+    /**
+     * @return The positions per second of the most recent search.
+     */
+    public double getLastPositionsPerSecond() {
+        return lastNanos > 0 ? lastPositions / (lastNanos / 1e9) : 0;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public int getCascades() {
+        return cascades;
+    }
+    
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Stops every search, including subtasks already forked, and shuts down
+     * the pool if this player created it.
+     */
+    @Override
+    public void dispose() {
+        cancelled = true;
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+        if (ownsPool) pool.shutdownNow();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.themematch3.simulation;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.LongArray;
+import com.ray3k.themematch3.board.Board;
+import com.ray3k.themematch3.board.Board.BoardListener;
+import com.ray3k.themematch3.board.BoardEventBus;
+import com.ray3k.themematch3.board.BoardTelemetry;
+import com.ray3k.themematch3.board.MatchShape;
+import com.ray3k.themematch3.board.MoveIndex;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Plays complete games on a {@link Board} without a window or GL context.
+ * Spawn waves follow the same rules as GridEntity, but cascades are resolved
+ * immediately instead of waiting for animations. Run with
+ * {@code gradlew core:simulate -PsimulationArgs="games columns rows seed player"}
+ * where player is scripted, random or auto.
+ */
+public class Simulation implements BoardListener {
+    public static final int INITIAL_SPAWN = 15;
+    private final int columns;
+    private final int rows;
+    private final long seed;
+    private final Player player;
+    private int movesPerWave;
+    private int maxSteps;
+    private final LongArray stepTimes;
+    private int games;
+    private long totalSteps;
+    private double totalSeconds;
+    private long totalScore;
+    private long elapsedNanos;
+    private int score;
+    private final BoardEventBus eventBus;
+    private final BoardTelemetry telemetry;
+    
+    public Simulation(int columns, int rows, long seed, Player player) {
+        this.columns = columns;
+        this.rows = rows;
+        this.seed = seed;
+        this.player = player;
+        movesPerWave = 3;
+        maxSteps = 100000;
+        stepTimes = new LongArray();
+        eventBus = new BoardEventBus();
+        telemetry = new BoardTelemetry();
+        eventBus.subscribe(telemetry);
+    }
+    
+    public interface Player {
+        /**
+         * Makes a single swap on the board.
+         * @return false if the player could not find a move.
+         */
+        public boolean move(Board board, Random random);
+    }
+    
+    /**
+     * Swaps a random piece with a random neighbor.
+     */
+    public static class RandomPlayer implements Player {
+        @Override
+        public boolean move(Board board, Random random) {
+            int cell = random.nextInt(board.getCellCount());
+            if (board.isEmpty(cell)) return false;
+            
+            int direction = random.nextInt(4);
+            int columnOffset = direction == 0 ? 1 : direction == 1 ? -1 : 0;
+            int rowOffset = direction == 2 ? 1 : direction == 3 ? -1 : 0;
+            return board.swap(cell, board.getAdjacent(cell, columnOffset, rowOffset));
+        }
+    }
+    
+    /**
+     * Makes the swap the board's move index offers as a hint. Plays the same
+     * way every time for the same sequence of board changes.
+     */
+    public static class ScriptedPlayer implements Player {
+        @Override
+        public boolean move(Board board, Random random) {
+            MoveIndex moveIndex = board.getMoveIndex();
+            int move = moveIndex.getHint();
+            if (move != -1) {
+                return board.swap(moveIndex.getFrom(move), moveIndex.getTo(move));
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Plays a single game to completion.
+     * @return The number of spawn waves the game lasted.
+     */
+    public int playGame(long gameSeed) {
+        Random random = new RandomXS128(gameSeed);
+        Board board = new Board(columns, rows, Board.DEFAULT_PIECE_TYPES, new RandomXS128(gameSeed ^ 0x5DEECE66DL));
+        board.setListener(this);
+        board.setEventBus(eventBus);
+        board.increaseLevel();
+        score = 0;
+        
+        for (int i = 0; i < INITIAL_SPAWN; i++) {
+            board.spawnRandomPieceSafe();
+        }
+        board.resolve();
+        
+        int steps = 0;
+        while (!board.isGameOver() && steps < maxSteps) {
+            long start = System.nanoTime();
+            
+            totalSeconds += board.getSpawnFrequency();
+            for (int i = 0; i < movesPerWave; i++) {
+                if (player.move(board, random)) board.resolve();
+            }
+            
+            if (board.spawnRandomPiece() != -1) {
+                for (int i = 1; i < board.getSpawnCount(); i++) {
+                    board.spawnRandomPieceSafe();
+                }
+                board.resolve();
+            }
+            
+            eventBus.flush();
+            stepTimes.add(System.nanoTime() - start);
+            steps++;
+        }
+        
+        games++;
+        totalSteps += steps;
+        totalScore += score;
+        return steps;
+    }
+    
+    public void run(int numberOfGames) {
+        long start = System.nanoTime();
+        for (int i = 0; i < numberOfGames; i++) {
+            playGame(seed + i);
+        }
+        elapsedNanos += System.nanoTime() - start;
+    }
+    
+    public String report() {
+        long[] times = stepTimes.toArray();
+        Arrays.sort(times);
+        
+        StringBuilder builder = new StringBuilder();
+        builder.append("Board ").append(columns).append("x").append(rows).append(", ").append(player.getClass().getSimpleName()).append(", seed ").append(seed).append("\n");
+        builder.append("Games: ").append(games).append(" in ").append(String.format("%.3f", elapsedNanos / 1e9)).append("s\n");
+        builder.append("Games/sec: ").append(String.format("%.1f", games / (elapsedNanos / 1e9))).append("\n");
+        builder.append("Average length: ").append(String.format("%.1f", totalSteps / (double) games)).append(" waves, ").append(String.format("%.1f", totalSeconds / games)).append("s of play\n");
+        builder.append("Average score: ").append(String.format("%.1f", totalScore / (double) games)).append("\n");
+        builder.append("Step cost (us): p50 ").append(percentile(times, .5f)).append(", p90 ").append(percentile(times, .9f)).append(", p99 ").append(percentile(times, .99f)).append(", max ").append(percentile(times, 1.0f));
+        builder.append("\nEvents: ").append(telemetry);
+        if (player instanceof AutoPlayer) {
+            AutoPlayer autoPlayer = (AutoPlayer) player;
+            builder.append("\nSearch: ").append(autoPlayer.getPositions()).append(" positions, ").append(String.format("%.0f", autoPlayer.getPositionsPerSecond())).append(" positions/sec on ").append(autoPlayer.getPool().getParallelism()).append(" threads");
+        }
+        return builder.toString();
+    }
+    
+    private static String percentile(long[] sorted, float percentile) {
+        if (sorted.length == 0) return "-";
+        int index = Math.min(sorted.length - 1, (int) (percentile * sorted.length));
+        return String.format("%.2f", sorted[index] / 1000.0);
+    }
+
+    public int getMovesPerWave() {
+        return movesPerWave;
+    }
+
+    public void setMovesPerWave(int movesPerWave) {
+        this.movesPerWave = movesPerWave;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+
+    public BoardTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public LongArray getStepTimes() {
+        return stepTimes;
+    }
+
+    @Override
+    public void pieceAdded(int cell, byte piece) {
+    }
+
+    @Override
+    public void pieceMoved(int fromCell, int toCell) {
+    }
+
+    @Override
+    public void pieceRemoved(int cell) {
+    }
+
+    @Override
+    public void scored(int points, int matchSize, MatchShape shape) {
+        score += points;
+    }
+
+    @Override
+    public void levelIncreased(int level) {
+    }
+    
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        String playerName = args.length > 4 ? args[4] : "scripted";
+        Player player;
+        if (playerName.equals("random")) {
+            player = new RandomPlayer();
+        } else if (playerName.equals("auto")) {
+            player = new AutoPlayer();
+        } else {
+            player = new ScriptedPlayer();
+        }
+        
+        Simulation simulation = new Simulation(columns, rows, seed, player);
+        simulation.run(games);
+        System.out.println(simulation.report());
+        
+        if (player instanceof Disposable) {
+            ((Disposable) player).dispose();
+        }
+    }
+}
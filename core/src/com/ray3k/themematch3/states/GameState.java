@@ -26,11 +26,11 @@ package com.ray3k.themematch3.states;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputMultiplexer;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
@@ -43,7 +43,14 @@ import com.badlogic.gdx.utils.viewport.Viewport;
 import com.ray3k.themematch3.Core;
 import com.ray3k.themematch3.EntityManager;
 import com.ray3k.themematch3.InputManager;
+import com.ray3k.themematch3.ProfilingSpriteBatch;
+import com.ray3k.themematch3.SoundId;
 import com.ray3k.themematch3.State;
+import com.ray3k.themematch3.board.BoardEventBus;
+import com.ray3k.themematch3.board.BoardEventBus.Subscriber;
+import com.ray3k.themematch3.board.BoardEventType;
+import com.ray3k.themematch3.board.BoardTelemetry;
+import com.ray3k.themematch3.board.MatchShape;
 import com.ray3k.themematch3.entities.GridEntity;
 
 public class GameState extends State {
@@ -66,6 +73,22 @@ public class GameState extends State {
 //    public static Array<String> colors = new Array<String>(new String[] {null, null, null, null, null, null, null});
     public static Array<String> textureNames = new Array<String>(new String[] {"apple", "apple", "apple", "apple", "apple", "apple", "apple"});
     public static Array<String> colors = new Array<String>(new String[] {"blue", "brown", "cyan", "dark-gray", "gold", "gray", "green"});
+    public static int boardColumns = GridEntity.DEFAULT_COLUMNS;
+    public static int boardRows = GridEntity.DEFAULT_ROWS;
+    /**
+     * Seed for the next session. 0 picks a new seed every time.
+     */
+    public static long seed = 0;
+    /**
+     * Lets an {@link com.ray3k.themematch3.simulation.AutoPlayer} make the
+     * swaps, for soak testing.
+     */
+    public static boolean autoPlay = false;
+    private long sessionSeed;
+    private final StringBuilder scoreText = new StringBuilder();
+    private final StringBuilder levelText = new StringBuilder();
+    private final BoardEventBus eventBus = new BoardEventBus();
+    private final BoardTelemetry telemetry = new BoardTelemetry();
     
     public static GameState inst() {
         return instance;
@@ -115,8 +138,17 @@ public class GameState extends State {
         
         createStageElements();
         
+        eventBus.clear();
+        telemetry.reset();
+        eventBus.subscribe(new AudioSubscriber());
+        eventBus.subscribe(new HudSubscriber());
+        eventBus.subscribe(telemetry);
+        
         
-        GridEntity grid = new GridEntity();
+        sessionSeed = seed != 0 ? seed : new RandomXS128().nextLong();
+        Gdx.app.log(GameState.class.getName(), "Session seed: " + sessionSeed);
+        
+        GridEntity grid = new GridEntity(boardColumns, boardRows, new RandomXS128(sessionSeed));
         entityManager.addEntity(grid);
     }
     
@@ -156,10 +188,16 @@ public class GameState extends State {
         entityManager.act(delta);
         
         spineStage.act(delta);
+        eventBus.flush();
         stage.act(delta);
         
+        if (Gdx.input.isKeyJustPressed(Keys.F3)) {
+            ProfilingSpriteBatch batch = Core.spriteBatch;
+            Gdx.app.log(GameState.class.getName(), "Last frame: " + batch.getFlushes() + " flushes, " + batch.getRenderCalls() + " render calls, " + batch.getTextureBinds() + " texture binds, " + batch.getBlendChanges() + " blend changes");
+        }
+        
         if (Gdx.input.isKeyPressed(Keys.ESCAPE)) {
-            playSound("victory", .5f);
+            Core.soundBank.play(SoundId.VICTORY, .5f);
             Core.stateManager.loadState("menu");
         }
     }
@@ -171,6 +209,10 @@ public class GameState extends State {
 
     @Override
     public void stop() {
+        Gdx.app.log(GameState.class.getName(), "Board events: " + telemetry);
+        Gdx.app.log(GameState.class.getName(), "Sounds: " + Core.soundBank.getPlayed() + " played, " + Core.soundBank.getMerged() + " merged, " + Core.soundBank.getDropped() + " dropped");
+        eventBus.unsubscribeAll();
+        entityManager.clear();
         stage.dispose();
     }
     
@@ -186,12 +228,93 @@ public class GameState extends State {
 
     public void setScore(int score) {
         this.score = score;
-        scoreLabel.setText(Integer.toString(this.score));
+        updateScoreLabel();
     }
     
     public void addScore(int score) {
         this.score += score;
-        scoreLabel.setText(Integer.toString(this.score));
+        updateScoreLabel();
+    }
+    
+    private void updateScoreLabel() {
+        scoreText.setLength(0);
+        scoreText.append(score);
+        scoreLabel.setText(scoreText);
+    }
+
+    /**
+     * Requests a sound for every event. The sound bank merges repeats of the
+     * same sound within the frame.
+     */
+    private class AudioSubscriber implements Subscriber {
+        @Override
+        public void drain(BoardEventBus events) {
+            for (int i = 0; i < events.size(); i++) {
+                switch (events.getType(i)) {
+                    case SPAWNED:
+                        Core.soundBank.play(SoundId.DROP);
+                        if (events.getThird(i) == 1) Core.soundBank.play(SoundId.WARNING);
+                        break;
+                    case SWAPPED:
+                        Core.soundBank.play(SoundId.SWAP);
+                        break;
+                    case MATCHED:
+                        switch (MatchShape.VALUES[events.getThird(i)]) {
+                            case LINE:
+                                Core.soundBank.play(events.getSecond(i) == 3 ? SoundId.MATCH : SoundId.BONUS);
+                                break;
+                            case L:
+                            case T:
+                                Core.soundBank.play(SoundId.EXTRA);
+                                break;
+                            default:
+                                Core.soundBank.play(SoundId.EXPLOSION);
+                                break;
+                        }
+                        break;
+                    case LEVEL_UP:
+                        if (events.getFirst(i) > 1) Core.soundBank.play(SoundId.VICTORY);
+                        break;
+                    case GAME_OVER:
+                        Core.soundBank.play(SoundId.LOSE);
+                        break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Adds up the points of every match and updates each label once per
+     * flush.
+     */
+    private class HudSubscriber implements Subscriber {
+        @Override
+        public void drain(BoardEventBus events) {
+            int points = 0;
+            for (int i = 0; i < events.size(); i++) {
+                if (events.getType(i) == BoardEventType.MATCHED) points += events.getFirst(i);
+            }
+            if (points > 0) addScore(points);
+            
+            int levelUp = events.findLast(BoardEventType.LEVEL_UP);
+            if (levelUp != -1) {
+                levelText.setLength(0);
+                levelText.append("Level\n").append(events.getFirst(levelUp));
+                levelLabel.setText(levelText);
+            }
+        }
+    }
+    
+    public BoardEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    public BoardTelemetry getTelemetry() {
+        return telemetry;
+    }
+    
+    public long getSessionSeed() {
+        return sessionSeed;
     }
 
     public OrthographicCamera getGameCamera() {
@@ -209,22 +332,4 @@ public class GameState extends State {
     public Stage getStage() {
         return stage;
     }
-    
-    public void playSound(String name) {
-        playSound(name, 1.0f, 1.0f);
-    }
-    
-    public void playSound (String name, float volume) {
-        playSound(name, volume, 1.0f);
-    }
-    
-    /**
-     * 
-     * @param name
-     * @param volume
-     * @param pitch .5 to 2. 1 is default
-     */
-    public void playSound(String name, float volume, float pitch) {
-        Core.assetManager.get(Core.DATA_PATH + "/sfx/" + name + ".wav", Sound.class).play(volume, pitch, 0.0f);
-    }
 }
\ No newline at end of file
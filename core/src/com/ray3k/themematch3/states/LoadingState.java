@@ -1,16 +1,11 @@
 package com.ray3k.themematch3.states;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Stage;
-import com.badlogic.gdx.scenes.scene2d.actions.DelayAction;
-import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar;
 import com.badlogic.gdx.scenes.scene2d.ui.ProgressBar.ProgressBarStyle;
@@ -20,11 +15,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Scaling;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
-import com.esotericsoftware.spine.SkeletonData;
 import com.ray3k.themematch3.Core;
-import static com.ray3k.themematch3.Core.DATA_PATH;
-import static com.ray3k.themematch3.Core.assetManager;
-import com.ray3k.themematch3.SkeletonDataLoader;
 import com.ray3k.themematch3.State;
 
 public class LoadingState extends State {
@@ -77,21 +68,12 @@ public class LoadingState extends State {
 
     @Override
     public void act(float delta) {
-        progressBar.setValue(Core.assetManager.getProgress());
         stage.act(delta);
-        if (!finishedLoading && Core.assetManager.update()) {
-            Action changeStateAction = new Action() {
-                @Override
-                public boolean act(float delta) {
-                    if (nextState != null) {
-                        finishedLoading = true;
-                        packPixmaps();
-                        Core.stateManager.loadState(nextState);
-                    }
-                    return true;
-                }
-            };
-            root.addAction(new SequenceAction(new DelayAction(1.0f), changeStateAction));
+        if (!finishedLoading) {
+            finishedLoading = Core.loadingPipeline.update();
+            progressBar.setValue(Core.loadingPipeline.getProgress());
+        } else if (nextState != null && progressBar.getVisualPercent() >= 1.0f) {
+            Core.stateManager.loadState(nextState);
         }
     }
 
@@ -124,24 +106,6 @@ public class LoadingState extends State {
         return returnValue;
     }
     
-    private void packPixmaps() {
-        for (String directory : Core.imagePacks.keys()) {
-            for (String name : Core.imagePacks.get(directory)) {
-                FileHandle file = Gdx.files.local(directory + "/" + name + ".png");
-                Core.pixmapPacker.pack(file.nameWithoutExtension(), Core.assetManager.get(file.path(), Pixmap.class));
-            }
-        }
-        
-        Core.generatedAtlas = Core.pixmapPacker.generateTextureAtlas(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear, false);
-        
-        FileHandle directory = Gdx.files.local(DATA_PATH + "/spine");
-        SkeletonDataLoader.SkeletonDataLoaderParameter parameter = new SkeletonDataLoader.SkeletonDataLoaderParameter(Core.generatedAtlas);
-        for (FileHandle jsonFile : directory.list("json")) {
-            assetManager.load(jsonFile.path(), SkeletonData.class, parameter);
-        }
-        assetManager.finishLoading();
-    }
-
     @Override
     public void stop() {
         stage.dispose();
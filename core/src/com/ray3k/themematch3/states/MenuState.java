@@ -25,7 +25,6 @@ package com.ray3k.themematch3.states;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
-import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
@@ -43,13 +42,16 @@ import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
-import com.esotericsoftware.spine.SkeletonData;
 import com.ray3k.themematch3.Core;
+import com.ray3k.themematch3.SoundId;
 import com.ray3k.themematch3.SpineDrawable;
 import com.ray3k.themematch3.SpineDrawable.SpineDrawableTemplate;
+import com.ray3k.themematch3.SpineImageButton;
 import com.ray3k.themematch3.State;
 
 public class MenuState extends State {
+    private static final String[] BOARD_NAMES = {"Classic", "Large", "Stress", "Endless"};
+    private static final int[] BOARD_SIZES = {8, 16, 64, 256};
     private Stage stage;
     private Skin skin;
     private Table root;
@@ -84,7 +86,7 @@ public class MenuState extends State {
         textButtton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                Core.assetManager.get(Core.DATA_PATH + "/sfx/drop.wav", Sound.class).play(1.0f);
+                Core.soundBank.play(SoundId.DROP);
                 showPieceDialog();
             }
         });
@@ -95,7 +97,7 @@ public class MenuState extends State {
         textButtton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
-                Core.assetManager.get(Core.DATA_PATH + "/sfx/match.wav", Sound.class).play(1.0f);
+                Core.soundBank.play(SoundId.MATCH);
                 Gdx.app.exit();
             }
         });
@@ -133,7 +135,7 @@ public class MenuState extends State {
             @Override
             protected void result(Object object) {
                 if ((Boolean) object) {
-                    Core.assetManager.get(Core.DATA_PATH + "/sfx/match.wav", Sound.class).play(1.0f);
+                    Core.soundBank.play(SoundId.MATCH);
                     Core.stateManager.loadState("game");
                 }
             }
@@ -148,7 +150,7 @@ public class MenuState extends State {
         dialog.getContentTable().add(hgroup).grow();
         
         for (int i = 0; i < 7; i++) {
-            final ImageButton imageButton = new ImageButton(new ImageButtonStyle(skin.get("default", ImageButtonStyle.class)));
+            final ImageButton imageButton = new SpineImageButton(new ImageButtonStyle(skin.get("default", ImageButtonStyle.class)));
             imageButton.setName("button" + i);
             imageButton.setUserObject(i);
             hgroup.addActor(imageButton);
@@ -157,7 +159,7 @@ public class MenuState extends State {
                 SpineDrawableTemplate template = new SpineDrawableTemplate();
                 template.minWidth = 60;
                 template.minHeight = 60;
-                SpineDrawable drawable = new SpineDrawable(Core.assetManager.get(Core.DATA_PATH + "/spine/" + GameState.textureNames.get(i) + ".json", SkeletonData.class), Core.skeletonRenderer, template);
+                SpineDrawable drawable = new SpineDrawable(Core.getSkeletonData(GameState.textureNames.get(i)), Core.skeletonRenderer, template);
                 drawable.getSkeleton().setSkin(GameState.colors.get(i));
                 imageButton.getStyle().imageUp = drawable;
             }
@@ -166,13 +168,34 @@ public class MenuState extends State {
                 @Override
                 public void changed(ChangeListener.ChangeEvent event,
                         Actor actor) {
-                    Core.assetManager.get(Core.DATA_PATH + "/sfx/drop.wav", Sound.class).play(1.0f);
+                    Core.soundBank.play(SoundId.DROP);
                     showTextureDialog((Integer) imageButton.getUserObject());
                     dialog.hide();
                 }
             });
         }
         
+        final TextButton boardButton = new TextButton(getBoardText(), skin);
+        dialog.getContentTable().row();
+        dialog.getContentTable().add(boardButton).padTop(25.0f);
+        boardButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event,
+                    Actor actor) {
+                Core.soundBank.play(SoundId.DROP);
+                int index = 0;
+                for (int i = 0; i < BOARD_SIZES.length; i++) {
+                    if (BOARD_SIZES[i] == GameState.boardColumns) {
+                        index = (i + 1) % BOARD_SIZES.length;
+                        break;
+                    }
+                }
+                GameState.boardColumns = BOARD_SIZES[index];
+                GameState.boardRows = BOARD_SIZES[index];
+                boardButton.setText(getBoardText());
+            }
+        });
+        
         dialog.button("Play", true).button("Cancel", false);
         dialog.key(Keys.ENTER, true).key(Keys.ESCAPE, false);
         dialog.getButtonTable().getCells().first().getActor().setName("playButton");
@@ -191,6 +214,17 @@ public class MenuState extends State {
         dialog.show(stage, null);
     }
     
+    private String getBoardText() {
+        String name = "Custom";
+        for (int i = 0; i < BOARD_SIZES.length; i++) {
+            if (BOARD_SIZES[i] == GameState.boardColumns && BOARD_SIZES[i] == GameState.boardRows) {
+                name = BOARD_NAMES[i];
+                break;
+            }
+        }
+        return name + " " + GameState.boardColumns + "x" + GameState.boardRows;
+    }
+    
     private void showTextureDialog(final int index) {
         final Dialog dialog = new Dialog("", skin);
         
@@ -204,14 +238,14 @@ public class MenuState extends State {
         
         String[] names = {"watermelon", "strawberry", "orange", "lemon", "jawbreaker", "heart", "gummy-bear", "grapes", "diamond", "cog", "chip", "cherries", "candy-corn", "candy-2", "candy-1", "banana", "apple"};
         for (String name : names) {
-            final ImageButton imageButton = new ImageButton(new ImageButtonStyle(skin.get("default", ImageButtonStyle.class)));
+            final ImageButton imageButton = new SpineImageButton(new ImageButtonStyle(skin.get("default", ImageButtonStyle.class)));
             imageButton.setUserObject(name);
             hgroup.addActor(imageButton);
             
             SpineDrawableTemplate template = new SpineDrawableTemplate();
             template.minWidth = 60;
             template.minHeight = 60;
-            SpineDrawable drawable = new SpineDrawable(Core.assetManager.get(Core.DATA_PATH + "/spine/" + name + ".json", SkeletonData.class), Core.skeletonRenderer, template);
+            SpineDrawable drawable = new SpineDrawable(Core.getSkeletonData(name), Core.skeletonRenderer, template);
             drawable.getSkeleton().setSkin("white");
             imageButton.getStyle().imageUp = drawable;
             
@@ -220,7 +254,7 @@ public class MenuState extends State {
                 public void changed(ChangeListener.ChangeEvent event,
                         Actor actor) {
                     dialog.hide();
-                    Core.assetManager.get(Core.DATA_PATH + "/sfx/drop.wav", Sound.class).play(1.0f);
+                    Core.soundBank.play(SoundId.DROP);
                     GameState.textureNames.set(index, (String) imageButton.getUserObject());
                     showColorDialog(index);
                 }
@@ -268,7 +302,7 @@ public class MenuState extends State {
                 public void changed(ChangeListener.ChangeEvent event,
                         Actor actor) {
                     dialog.hide();
-                    Core.assetManager.get(Core.DATA_PATH + "/sfx/drop.wav", Sound.class).play(1.0f);
+                    Core.soundBank.play(SoundId.DROP);
                     GameState.colors.set(index, (String) textButton.getUserObject());
                     showPieceDialog();
                 }
@@ -3,9 +3,22 @@ package com.ray3k.themematch3.desktop;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.ray3k.themematch3.Core;
+import com.ray3k.themematch3.states.GameState;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
+		for (int i = 0; i < arg.length; i++) {
+			if (arg[i].equals("-seed") && i + 1 < arg.length) {
+				GameState.seed = Long.parseLong(arg[i + 1]);
+			} else if (arg[i].equals("-autoplay")) {
+				GameState.autoPlay = true;
+			} else if (arg[i].equals("-nobake")) {
+				Core.bakeAnimations = false;
+			} else if (arg[i].equals("-parsethreads") && i + 1 < arg.length) {
+				Core.parserThreads = Integer.parseInt(arg[i + 1]);
+			}
+		}
+		
 		LwjglApplicationConfiguration config = new LwjglApplicationConfiguration();
                 config.width = 800;
                 config.height = 600;